@@ -0,0 +1,124 @@
+package com.circletimer.library.circletimerview.benchmark;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.Picture;
+
+/**
+ * Canvas that records the draw calls it receives instead of drawing them, so draw costs can be compared without a
+ * device.
+ */
+public class RecordingCanvas extends Canvas {
+
+    public static final int OP_SAVE = 0;
+    public static final int OP_RESTORE = 1;
+    public static final int OP_DRAW_LINE = 2;
+    public static final int OP_DRAW_LINES = 3;
+    public static final int OP_DRAW_TEXT = 4;
+    public static final int OP_DRAW_CIRCLE = 5;
+    public static final int OP_DRAW_BITMAP = 6;
+    public static final int OP_DRAW_PICTURE = 7;
+    public static final int OP_DRAW_PATH = 8;
+    public static final int OP_COUNT = 9;
+
+    private static final String[] OP_NAMES = {"save", "restore", "drawLine", "drawLines", "drawText", "drawCircle",
+            "drawBitmap", "drawPicture", "drawPath"};
+
+    private final int[] mOps = new int[OP_COUNT];
+    private int mLinePoints;
+
+    public static String getOpName(int op) {
+        return OP_NAMES[op];
+    }
+
+    /**
+     * @return number of calls of the op since the last reset
+     */
+    public int getOpCount(int op) {
+        return mOps[op];
+    }
+
+    /**
+     * @return number of calls of all ops since the last reset
+     */
+    public int getOpCount() {
+        int count = 0;
+        for (int op : mOps) {
+            count += op;
+        }
+        return count;
+    }
+
+    /**
+     * @return number of lines drawn by drawLine and drawLines since the last reset
+     */
+    public int getLineCount() {
+        return mOps[OP_DRAW_LINE] + mLinePoints / 4;
+    }
+
+    public void reset() {
+        for (int i = 0; i < OP_COUNT; i++) {
+            mOps[i] = 0;
+        }
+        mLinePoints = 0;
+    }
+
+    @Override
+    public int save() {
+        mOps[OP_SAVE]++;
+        return 1;
+    }
+
+    @Override
+    public void restore() {
+        mOps[OP_RESTORE]++;
+    }
+
+    @Override
+    public boolean isHardwareAccelerated() {
+        return false;
+    }
+
+    @Override
+    public void drawLine(float startX, float startY, float stopX, float stopY, Paint paint) {
+        mOps[OP_DRAW_LINE]++;
+    }
+
+    @Override
+    public void drawLines(float[] pts, int offset, int count, Paint paint) {
+        mOps[OP_DRAW_LINES]++;
+        mLinePoints += count;
+    }
+
+    @Override
+    public void drawText(String text, float x, float y, Paint paint) {
+        mOps[OP_DRAW_TEXT]++;
+    }
+
+    @Override
+    public void drawText(char[] text, int index, int count, float x, float y, Paint paint) {
+        mOps[OP_DRAW_TEXT]++;
+    }
+
+    @Override
+    public void drawCircle(float cx, float cy, float radius, Paint paint) {
+        mOps[OP_DRAW_CIRCLE]++;
+    }
+
+    @Override
+    public void drawBitmap(Bitmap bitmap, float left, float top, Paint paint) {
+        mOps[OP_DRAW_BITMAP]++;
+    }
+
+    @Override
+    public void drawPicture(Picture picture) {
+        mOps[OP_DRAW_PICTURE]++;
+    }
+
+    @Override
+    public void drawPath(Path path, Paint paint) {
+        mOps[OP_DRAW_PATH]++;
+    }
+}
@@ -0,0 +1,143 @@
+package com.circletimer.library.circletimerview.benchmark;
+
+import com.circletimer.library.circletimerview.AngleTracker;
+
+import org.junit.AfterClass;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compares the per sample cost of the atan based drag math that CircleTimerView used before with
+ * {@link AngleTracker}, and writes the results to angle-math.json in the report directory.
+ */
+public class AngleMathBenchmarkTest {
+
+    private static final float CX = 300;
+    private static final float CY = 300;
+    private static final int SAMPLES = 4096;
+    private static final int TURNS = 8;
+    private static final int ITERATIONS = 2000;
+
+    private static final BenchmarkReport sReport = new BenchmarkReport();
+
+    // Pointer samples going TURNS times clockwise around the center with some jitter
+    private static final float[] sX = new float[SAMPLES];
+    private static final float[] sY = new float[SAMPLES];
+
+    static {
+        Random random = new Random(42);
+        for (int i = 0; i < SAMPLES; i++) {
+            double angle = 2 * Math.PI * TURNS * i / SAMPLES;
+            float radius = 200 + random.nextFloat() * 20;
+            sX[i] = CX + radius * (float) Math.sin(angle);
+            sY[i] = CY - radius * (float) Math.cos(angle);
+        }
+        // A sample level with the center, where atan divides by zero
+        sY[SAMPLES / 3] = CY;
+    }
+
+    @AfterClass
+    public static void writeReport() throws Exception {
+        sReport.write("angle-math.json");
+    }
+
+    @Test
+    public void legacy() throws Exception {
+        final LegacyAngleMath legacy = new LegacyAngleMath();
+        Benchmark.Result result = Benchmark.measure(ITERATIONS, new Benchmark.Operation() {
+            @Override
+            public void run(int iteration) {
+                legacy.begin(sX[0], sY[0]);
+                for (int i = 1; i < SAMPLES; i++) {
+                    legacy.track(sX[i], sY[i]);
+                }
+            }
+        });
+        sReport.put("legacy", "nanosPerSample", result.nanosPerOp / SAMPLES);
+        sReport.put("legacy", "bytesPerSample", result.bytesPerOp / SAMPLES);
+    }
+
+    @Test
+    public void angleTracker() throws Exception {
+        final AngleTracker tracker = new AngleTracker();
+        final float[] total = new float[1];
+        Benchmark.Result result = Benchmark.measure(ITERATIONS, new Benchmark.Operation() {
+            @Override
+            public void run(int iteration) {
+                float sum = 0;
+                tracker.begin(sX[0] - CX, sY[0] - CY);
+                for (int i = 1; i < SAMPLES; i++) {
+                    sum += tracker.track(sX[i] - CX, sY[i] - CY);
+                }
+                total[0] = sum;
+            }
+        });
+        sReport.put("angleTracker", "nanosPerSample", result.nanosPerOp / SAMPLES);
+        sReport.put("angleTracker", "bytesPerSample", result.bytesPerOp / SAMPLES);
+
+        // The unwrapped angle follows every turn, except the last sample step that is not taken
+        assertEquals(2 * Math.PI * TURNS * (SAMPLES - 1) / SAMPLES, total[0], 0.05);
+        assertTrue(result.bytesPerOp < 1);
+    }
+
+    @Test
+    public void angleTracker_matchesAtan2() throws Exception {
+        double maxError = 0;
+        for (int i = 0; i < SAMPLES; i++) {
+            double expected = Math.atan2(sX[i] - CX, -(sY[i] - CY));
+            maxError = Math.max(maxError, Math.abs(AngleTracker.atan2(sX[i] - CX, -(sY[i] - CY)) - expected));
+        }
+        for (int degree = -180; degree <= 180; degree++) {
+            double angle = Math.toRadians(degree);
+            float y = (float) Math.sin(angle);
+            float x = (float) Math.cos(angle);
+            maxError = Math.max(maxError, Math.abs(AngleTracker.atan2(y, x) - Math.atan2(y, x)));
+        }
+        sReport.put("angleTracker", "maxErrorMicroRadians", maxError * 1e6);
+        assertTrue("max error " + maxError, maxError < 1e-5);
+        assertEquals(0, AngleTracker.atan2(0, 0), 0);
+    }
+
+    /**
+     * Drag math of CircleTimerView before AngleTracker, kept as the baseline
+     */
+    private static class LegacyAngleMath {
+        float mPreRadian;
+        float mCurrentRadian;
+
+        void begin(float x, float y) {
+            mPreRadian = getRadian(x, y);
+            mCurrentRadian = 0;
+        }
+
+        void track(float x, float y) {
+            float temp = getRadian(x, y);
+            if (mPreRadian > Math.toRadians(270) && temp < Math.toRadians(90)) {
+                mPreRadian -= 2 * Math.PI;
+            } else if (mPreRadian < Math.toRadians(90) && temp > Math.toRadians(270)) {
+                mPreRadian = (float) (temp + (temp - 2 * Math.PI) - mPreRadian);
+            }
+            mCurrentRadian += (temp - mPreRadian);
+            mPreRadian = temp;
+            if (mCurrentRadian < 0) {
+                mCurrentRadian = 0;
+            }
+        }
+
+        float getRadian(float x, float y) {
+            float alpha = (float) Math.atan((x - CX) / (CY - y));
+            if (x > CX && y > CY) {
+                alpha += Math.PI;
+            } else if (x < CX && y > CY) {
+                alpha += Math.PI;
+            } else if (x < CX && y < CY) {
+                alpha = (float) (2 * Math.PI + alpha);
+            }
+            return alpha;
+        }
+    }
+}
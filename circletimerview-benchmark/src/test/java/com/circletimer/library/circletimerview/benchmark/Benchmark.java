@@ -0,0 +1,53 @@
+package com.circletimer.library.circletimerview.benchmark;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Measures the time and the heap allocations of a repeated operation on the calling thread.
+ */
+public final class Benchmark {
+
+    private static final int WARM_UP_ITERATIONS = 2000;
+
+    private Benchmark() {
+        /* cannot be instantiated */
+        throw new UnsupportedOperationException("cannot be instantiated");
+    }
+
+    public static class Result {
+        public final double nanosPerOp;
+        public final double bytesPerOp;
+
+        Result(double nanosPerOp, double bytesPerOp) {
+            this.nanosPerOp = nanosPerOp;
+            this.bytesPerOp = bytesPerOp;
+        }
+    }
+
+    /**
+     * Run the operation after a warm up
+     *
+     * @param iterations number of measured runs
+     * @param operation  operation, receives the iteration index
+     * @return average time and allocated bytes per run
+     */
+    public static Result measure(int iterations, Operation operation) {
+        for (int i = 0; i < WARM_UP_ITERATIONS; i++) {
+            operation.run(i);
+        }
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long bytes = bean.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            operation.run(i);
+        }
+        long nanos = System.nanoTime() - start;
+        bytes = bean.getThreadAllocatedBytes(threadId) - bytes;
+        return new Result((double) nanos / iterations, (double) bytes / iterations);
+    }
+
+    public interface Operation {
+        void run(int iteration);
+    }
+}
@@ -0,0 +1,79 @@
+package com.circletimer.library.circletimerview.benchmark;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Collects named metrics and writes them as JSON.
+ * <p>
+ * Benchmarks and metrics are sorted by name and written one metric per line, so two reports can be compared with a
+ * plain text diff.
+ */
+public class BenchmarkReport {
+
+    private final Map<String, Map<String, Double>> mBenchmarks = new TreeMap<>();
+
+    public void put(String benchmark, String metric, double value) {
+        Map<String, Double> metrics = mBenchmarks.get(benchmark);
+        if (metrics == null) {
+            metrics = new TreeMap<>();
+            mBenchmarks.put(benchmark, metrics);
+        }
+        metrics.put(metric, value);
+    }
+
+    public void put(String benchmark, Benchmark.Result result) {
+        put(benchmark, "nanosPerOp", result.nanosPerOp);
+        put(benchmark, "bytesPerOp", result.bytesPerOp);
+    }
+
+    public String toJson() {
+        StringBuilder json = new StringBuilder("{\n");
+        int benchmarkIndex = 0;
+        for (Map.Entry<String, Map<String, Double>> benchmark : mBenchmarks.entrySet()) {
+            json.append("  \"").append(benchmark.getKey()).append("\": {\n");
+            int metricIndex = 0;
+            for (Map.Entry<String, Double> metric : benchmark.getValue().entrySet()) {
+                json.append("    \"").append(metric.getKey()).append("\": ").append(format(metric.getValue()));
+                json.append(++metricIndex < benchmark.getValue().size() ? ",\n" : "\n");
+            }
+            json.append(++benchmarkIndex < mBenchmarks.size() ? "  },\n" : "  }\n");
+        }
+        return json.append("}\n").toString();
+    }
+
+    /**
+     * Write the report into the directory given by the benchmark.reportDir system property and print it
+     *
+     * @param name file name
+     */
+    public void write(String name) throws IOException {
+        write(new File(System.getProperty("benchmark.reportDir", "build/reports/benchmark"), name));
+        System.out.print(toJson());
+    }
+
+    public void write(File file) throws IOException {
+        File parent = file.getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            throw new IOException("cannot create " + parent);
+        }
+        Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+        try {
+            writer.write(toJson());
+        } finally {
+            writer.close();
+        }
+    }
+
+    private static String format(double value) {
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return String.format(java.util.Locale.US, "%.2f", value);
+    }
+}
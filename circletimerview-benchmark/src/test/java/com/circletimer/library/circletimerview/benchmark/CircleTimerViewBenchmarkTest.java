@@ -0,0 +1,371 @@
+package com.circletimer.library.circletimerview.benchmark;
+
+import android.os.SystemClock;
+import android.view.MotionEvent;
+import android.view.View;
+
+import com.circletimer.library.circletimerview.CircleTimerView;
+import com.circletimer.library.circletimerview.CountdownEngine;
+import com.circletimer.library.circletimerview.HandlerTickEngine;
+import com.circletimer.library.circletimerview.MultiCircleTimerView;
+import com.circletimer.library.circletimerview.VirtualTickEngine;
+
+import org.junit.AfterClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Measures the draw paths of every render backend and the measure, touch, tick and list binding paths of
+ * {@link CircleTimerView}, the draw and tick paths of {@link MultiCircleTimerView} and one shared tick engine driving
+ * 1, 10, 100 and 1000 running timers, on the JVM, and writes the results to circletimerview.json in the report
+ * directory.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 26)
+public class CircleTimerViewBenchmarkTest {
+
+    private static final int SIZE = 600;
+    private static final int ITERATIONS = 20000;
+    private static final int HOUR_SECONDS = 3600;
+
+    private static final BenchmarkReport sReport = new BenchmarkReport();
+
+    @AfterClass
+    public static void writeReport() throws Exception {
+        sReport.write("circletimerview.json");
+    }
+
+    @Test
+    public void draw() throws Exception {
+        measureDraw("draw.default", createView());
+    }
+
+    @Test
+    public void draw_dialCache() throws Exception {
+        CircleTimerView view = createView();
+        view.setDialCacheEnabled(true);
+        measureDraw("draw.dialCache", view);
+    }
+
+    @Test
+    public void draw_displayList() throws Exception {
+        CircleTimerView view = createView();
+        view.setRenderBackend(CircleTimerView.RENDER_BACKEND_DISPLAY_LIST);
+        measureDraw("draw.displayList", view);
+    }
+
+    /**
+     * The JVM has no layer renderer, draw() records straight into the benchmark canvas. The layer cases measure the
+     * drawing of the view into its layer, not the composition of the layer into the window, which needs a device.
+     */
+    @Test
+    public void draw_layerSoftware() throws Exception {
+        CircleTimerView view = createView();
+        view.setRenderBackend(CircleTimerView.RENDER_BACKEND_SOFTWARE);
+        measureDraw("draw.layerSoftware", view);
+        sReport.put("draw.layerSoftware", "layerType", view.getLayerType());
+        assertEquals(View.LAYER_TYPE_SOFTWARE, view.getLayerType());
+    }
+
+    @Test
+    public void draw_layerHardware() throws Exception {
+        CircleTimerView view = createView();
+        view.setRenderBackend(CircleTimerView.RENDER_BACKEND_HARDWARE_LAYER);
+        measureDraw("draw.layerHardware", view);
+        sReport.put("draw.layerHardware", "layerType", view.getLayerType());
+        assertEquals(View.LAYER_TYPE_HARDWARE, view.getLayerType());
+    }
+
+    @Test
+    public void draw_digitPaths() throws Exception {
+        CircleTimerView view = createView();
+        view.setDigitCache(CircleTimerView.DIGIT_CACHE_PATHS);
+        measureDraw("draw.digitPaths", view);
+    }
+
+    @Test
+    public void draw_digitBitmaps() throws Exception {
+        CircleTimerView view = createView();
+        view.setDigitCache(CircleTimerView.DIGIT_CACHE_BITMAPS);
+        measureDraw("draw.digitBitmaps", view);
+    }
+
+    @Test
+    public void measure() throws Exception {
+        final CircleTimerView view = createView();
+        Benchmark.Result result = Benchmark.measure(ITERATIONS, new Benchmark.Operation() {
+            @Override
+            public void run(int iteration) {
+                // Alternate the size so that the measure is not skipped
+                int spec = View.MeasureSpec.makeMeasureSpec(SIZE + iteration % 2, View.MeasureSpec.EXACTLY);
+                view.measure(spec, spec);
+            }
+        });
+        sReport.put("measure", result);
+    }
+
+    @Test
+    public void touchMove() throws Exception {
+        final CircleTimerView view = createView();
+        long downTime = SystemClock.uptimeMillis();
+        final MotionEvent[] moves = new MotionEvent[360];
+        for (int i = 0; i < moves.length; i++) {
+            // One full turn around the dial, clockwise from 12 o'clock
+            double angle = Math.toRadians(i);
+            moves[i] = MotionEvent.obtain(downTime, downTime + i, MotionEvent.ACTION_MOVE,
+                    (float) (SIZE / 2 + SIZE / 3 * Math.sin(angle)), (float) (SIZE / 2 - SIZE / 3 * Math.cos(angle)), 0);
+        }
+        view.onTouchEvent(MotionEvent.obtain(downTime, downTime, MotionEvent.ACTION_DOWN, SIZE / 2, SIZE / 6, 0));
+        Benchmark.Result result = Benchmark.measure(ITERATIONS, new Benchmark.Operation() {
+            @Override
+            public void run(int iteration) {
+                view.onTouchEvent(moves[iteration % moves.length]);
+            }
+        });
+        sReport.put("touchMove", result);
+        sReport.put("touchMove", "eventsPerSecond", 1e9 / result.nanosPerOp);
+    }
+
+    @Test
+    public void touchMove_detents() throws Exception {
+        final CircleTimerView view = createView();
+        view.setDetentStep(300);
+        final int[] changes = new int[1];
+        view.addCircleTimerListener(new CircleTimerView.CircleTimerListener() {
+            @Override
+            public void onTimerStop() {
+            }
+
+            @Override
+            public void onTimerStart(int time) {
+            }
+
+            @Override
+            public void onTimerPause(int time) {
+            }
+
+            @Override
+            public void onTimerTimingValueChanged(int time) {
+            }
+
+            @Override
+            public void onTimerSetValueChanged(int time) {
+            }
+
+            @Override
+            public void onTimerSetValueChange(int time) {
+                changes[0]++;
+            }
+        });
+        long downTime = SystemClock.uptimeMillis();
+        final MotionEvent[] moves = new MotionEvent[360];
+        for (int i = 0; i < moves.length; i++) {
+            // One degree forward then one back, so the drag stays within the first turn
+            double angle = Math.toRadians(i < 180 ? i : 360 - i);
+            moves[i] = MotionEvent.obtain(downTime, downTime + i, MotionEvent.ACTION_MOVE,
+                    (float) (SIZE / 2 + SIZE / 3 * Math.sin(angle)), (float) (SIZE / 2 - SIZE / 3 * Math.cos(angle)), 0);
+        }
+        view.onTouchEvent(MotionEvent.obtain(downTime, downTime, MotionEvent.ACTION_DOWN, SIZE / 2, SIZE / 6, 0));
+        Benchmark.Result result = Benchmark.measure(ITERATIONS, new Benchmark.Operation() {
+            @Override
+            public void run(int iteration) {
+                view.onTouchEvent(moves[iteration % moves.length]);
+            }
+        });
+        sReport.put("touchMove.detents", result);
+        sReport.put("touchMove.detents", "eventsPerSecond", 1e9 / result.nanosPerOp);
+        sReport.put("touchMove.detents", "setValueChangesPerEvent", (double) changes[0] / ITERATIONS);
+        // 5 minute detents over half a turn, 6 changes each way instead of one per degree
+        assertTrue(changes[0] <= 2 * 6 * (ITERATIONS / moves.length + 1));
+    }
+
+    @Test
+    public void tick() throws Exception {
+        final CircleTimerView view = createView();
+        final VirtualTickEngine engine = new VirtualTickEngine();
+        view.setTickEngine(engine);
+        // Long enough to keep running through warm up and measurement
+        view.setCurrentTime(24 * 3600);
+        view.startTimer();
+        Benchmark.Result result = Benchmark.measure(ITERATIONS, new Benchmark.Operation() {
+            @Override
+            public void run(int iteration) {
+                engine.advanceBy(1000);
+            }
+        });
+        assertTrue(engine.getWakeupCount() > ITERATIONS);
+        sReport.put("tick", result);
+    }
+
+    @Test
+    public void tickEngine() throws Exception {
+        for (int timers = 1; timers <= 1000; timers *= 10) {
+            measureTickEngine(timers);
+        }
+    }
+
+    private static void measureTickEngine(int timers) {
+        int threads = Thread.activeCount();
+        final VirtualTickEngine engine = new VirtualTickEngine();
+        engine.setAlignment(HandlerTickEngine.SHARED_ALIGNMENT);
+        for (int i = 0; i < timers; i++) {
+            // Started at different times within the first second, long enough to keep running through the runs
+            engine.advanceTo(i * 1000L / timers);
+            CircleTimerView view = createView();
+            view.setTickEngine(engine);
+            view.setCurrentTime(24 * 3600 + i * 37);
+            view.startTimer();
+        }
+        String name = "tick.engine." + timers;
+
+        // One operation is one second of the clock
+        Benchmark.Result result = Benchmark.measure(HOUR_SECONDS, new Benchmark.Operation() {
+            @Override
+            public void run(int iteration) {
+                engine.advanceBy(1000);
+            }
+        });
+        sReport.put(name, result);
+
+        // Then one more hour for the CPU time and the wakeups
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        long wakeups = engine.getWakeupCount();
+        long cpu = bean.getCurrentThreadCpuTime();
+        engine.advanceBy(HOUR_SECONDS * 1000L);
+        cpu = bean.getCurrentThreadCpuTime() - cpu;
+        wakeups = engine.getWakeupCount() - wakeups;
+        sReport.put(name, "cpuMillisPerHour", cpu / 1e6);
+        sReport.put(name, "wakeupsPerHour", wakeups);
+        sReport.put(name, "addedThreads", Thread.activeCount() - threads);
+        // The aligned timers share one wakeup per second and no thread whatever their number
+        assertTrue(wakeups <= HOUR_SECONDS + 1);
+        assertEquals(timers, engine.getRunningCount());
+        assertEquals(threads, Thread.activeCount());
+    }
+
+    @Test
+    public void bind() throws Exception {
+        final VirtualTickEngine engine = new VirtualTickEngine();
+        // The models of a 1000 row list, every other one running
+        final CountdownEngine[] models = new CountdownEngine[1000];
+        for (int i = 0; i < models.length; i++) {
+            models[i] = new CountdownEngine(engine);
+            models[i].setRemainingMillis((i * 37 % 3600 + 1) * 1000L);
+            if (i % 2 == 0) {
+                models[i].start();
+            }
+        }
+        // The views a list keeps while scrolling
+        final CircleTimerView[] views = new CircleTimerView[12];
+        for (int i = 0; i < views.length; i++) {
+            views[i] = createView();
+            views[i].setTickEngine(engine);
+        }
+        final RecordingCanvas canvas = new RecordingCanvas();
+        Benchmark.Result result = Benchmark.measure(ITERATIONS, new Benchmark.Operation() {
+            @Override
+            public void run(int iteration) {
+                // Scroll down the list, the view leaving the screen is rebound to the row entering it
+                CircleTimerView view = views[iteration % views.length];
+                view.bind(models[iteration % models.length]);
+                view.draw(canvas);
+            }
+        });
+        // Only the bound views tick
+        assertTrue(engine.getRunningCount() <= views.length);
+        sReport.put("bind", result);
+        sReport.put("bind", "rowsPerFrame", 16e6 / result.nanosPerOp);
+
+        Benchmark.Result create = Benchmark.measure(ITERATIONS / 10, new Benchmark.Operation() {
+            @Override
+            public void run(int iteration) {
+                createView().draw(canvas);
+            }
+        });
+        sReport.put("bind.create", create);
+    }
+
+    @Test
+    public void multiRing() throws Exception {
+        for (int rings = 1; rings <= 32; rings *= 2) {
+            measureMultiRing(rings);
+        }
+    }
+
+    private static void measureMultiRing(int rings) {
+        final MultiCircleTimerView view = new MultiCircleTimerView(RuntimeEnvironment.application);
+        int spec = View.MeasureSpec.makeMeasureSpec(SIZE, View.MeasureSpec.EXACTLY);
+        view.measure(spec, spec);
+        view.layout(0, 0, SIZE, SIZE);
+        final VirtualTickEngine engine = new VirtualTickEngine();
+        view.setTickEngine(engine);
+        for (int i = 0; i < rings; i++) {
+            int ring = view.addRing();
+            // Unrelated deadlines, long enough to keep running through warm up and measurement
+            view.setRingTime(ring, 24 * 3600 + i * 37);
+            view.startRing(ring);
+        }
+
+        final RecordingCanvas canvas = new RecordingCanvas();
+        Benchmark.Result draw = Benchmark.measure(ITERATIONS, new Benchmark.Operation() {
+            @Override
+            public void run(int iteration) {
+                view.draw(canvas);
+            }
+        });
+        sReport.put("multiRing.draw." + rings, draw);
+
+        Benchmark.Result tick = Benchmark.measure(ITERATIONS, new Benchmark.Operation() {
+            @Override
+            public void run(int iteration) {
+                engine.advanceBy(1000);
+            }
+        });
+        // All rings share one callback, so the wakeups do not grow with the ring count
+        sReport.put("multiRing.tick." + rings, tick);
+        sReport.put("multiRing.tick." + rings, "wakeups", engine.getWakeupCount());
+    }
+
+    private static CircleTimerView createView() {
+        CircleTimerView view = new CircleTimerView(RuntimeEnvironment.application);
+        view.setHintText("Timer");
+        int spec = View.MeasureSpec.makeMeasureSpec(SIZE, View.MeasureSpec.EXACTLY);
+        view.measure(spec, spec);
+        view.layout(0, 0, SIZE, SIZE);
+        return view;
+    }
+
+    private static void measureDraw(String name, final CircleTimerView view) {
+        final RecordingCanvas canvas = new RecordingCanvas();
+        Benchmark.Result result = Benchmark.measure(ITERATIONS, new Benchmark.Operation() {
+            @Override
+            public void run(int iteration) {
+                // Sweep through a full hour so every tick range and time text is drawn
+                view.setCurrentTime(iteration % 3600);
+                view.draw(canvas);
+            }
+        });
+        sReport.put(name, result);
+
+        // Draw operations of a single frame
+        canvas.reset();
+        view.setCurrentTime(1800);
+        view.draw(canvas);
+        sReport.put(name, "opsPerFrame", canvas.getOpCount());
+        sReport.put(name, "linesPerFrame", canvas.getLineCount());
+        for (int op = 0; op < RecordingCanvas.OP_COUNT; op++) {
+            if (canvas.getOpCount(op) > 0) {
+                sReport.put(name, "ops." + RecordingCanvas.getOpName(op), canvas.getOpCount(op));
+            }
+        }
+    }
+}
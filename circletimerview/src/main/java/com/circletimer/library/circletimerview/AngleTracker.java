@@ -0,0 +1,93 @@
+package com.circletimer.library.circletimerview;
+
+/**
+ * Tracks the angle of a pointer dragged around the dial center.
+ * <p>
+ * Angles are in radians, 0 at 12 o'clock and growing clockwise in screen coordinates. {@link #track(float, float)}
+ * returns the signed change since the previous sample, unwrapped across 12 o'clock, so a caller can accumulate the
+ * drag over several turns. Everything is float math on precomputed constants, nothing is allocated.
+ * <p>
+ * The arc tangent is a polynomial approximation with an error below 0.00001 radian, far less than a hundredth of a
+ * pixel on a dial of any practical size, and is several times cheaper than {@link Math#atan2(double, double)}.
+ */
+public final class AngleTracker {
+
+    public static final float PI = (float) Math.PI;
+    public static final float TWO_PI = (float) (2 * Math.PI);
+    public static final float HALF_PI = (float) (Math.PI / 2);
+
+    // Coefficients of the arc tangent approximation on [0, 1]
+    private static final float ATAN_A = 0.99997726f;
+    private static final float ATAN_B = -0.33262347f;
+    private static final float ATAN_C = 0.19354346f;
+    private static final float ATAN_D = -0.11643287f;
+    private static final float ATAN_E = 0.05265332f;
+    private static final float ATAN_F = -0.01172120f;
+
+    private float mAngle;
+
+    /**
+     * @param dx x of the pointer relative to the center
+     * @param dy y of the pointer relative to the center
+     * @return angle in [0, 2π), 0 when the pointer is on the center
+     */
+    public static float angleOf(float dx, float dy) {
+        float angle = atan2(dx, -dy);
+        return angle < 0 ? angle + TWO_PI : angle;
+    }
+
+    /**
+     * Approximate {@link Math#atan2(double, double)} in float
+     *
+     * @return angle in [-π, π], 0 for (0, 0)
+     */
+    public static float atan2(float y, float x) {
+        float absX = Math.abs(x);
+        float absY = Math.abs(y);
+        float max = Math.max(absX, absY);
+        if (max == 0) {
+            return 0;
+        }
+        float a = Math.min(absX, absY) / max;
+        float s = a * a;
+        float angle = ((((((ATAN_F * s + ATAN_E) * s + ATAN_D) * s + ATAN_C) * s + ATAN_B) * s + ATAN_A) * a);
+        if (absY > absX) {
+            angle = HALF_PI - angle;
+        }
+        if (x < 0) {
+            angle = PI - angle;
+        }
+        return y < 0 ? -angle : angle;
+    }
+
+    /**
+     * Start tracking at the pointer position
+     */
+    public void begin(float dx, float dy) {
+        mAngle = angleOf(dx, dy);
+    }
+
+    /**
+     * Move to the next pointer sample
+     *
+     * @return change of the angle since the previous sample, in (-π, π]
+     */
+    public float track(float dx, float dy) {
+        float angle = angleOf(dx, dy);
+        float delta = angle - mAngle;
+        if (delta > PI) {
+            delta -= TWO_PI;
+        } else if (delta <= -PI) {
+            delta += TWO_PI;
+        }
+        mAngle = angle;
+        return delta;
+    }
+
+    /**
+     * @return angle of the last sample, in [0, 2π)
+     */
+    public float getAngle() {
+        return mAngle;
+    }
+}
@@ -0,0 +1,564 @@
+package com.circletimer.library.circletimerview;
+
+import android.content.Context;
+import android.content.res.TypedArray;
+import android.graphics.Bitmap;
+import android.graphics.Paint;
+import android.util.DisplayMetrics;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.WeakHashMap;
+
+/**
+ * Colors, sizes and paints of a {@link CircleTimerView}.
+ * <p>
+ * A style is immutable and interned: all views inflated or built with the same values share one instance, its paints
+ * and its cached dial layers, so a list of timers creates the paints once instead of once per row. Themes are
+ * switched by building the styles once with a {@link Builder} and passing them to
+ * {@link CircleTimerView#setStyle(CircleTimerStyle)}, every view then only updates what differs between the two
+ * styles. The paints must not be modified. Styles are used on the main thread only, except for building them.
+ */
+public final class CircleTimerStyle {
+
+    // Distinct dial layers kept per style, e.g. for rows of a few different sizes
+    private static final int MAX_DIAL_LAYERS = 4;
+
+    private static final WeakHashMap<CircleTimerStyle, WeakReference<CircleTimerStyle>> sInterned =
+            new WeakHashMap<CircleTimerStyle, WeakReference<CircleTimerStyle>>();
+
+    // Color
+    int mCircleColor;
+    int mCircleButtonColor;
+    int mLineColor;
+    int mHighlightLineColor;
+    int mNumberColor;
+    int mTimerNumberColor;
+    int mTimerTextColor;
+
+    // Dimension in px
+    float mGapBetweenCircleAndLine;
+    float mGapBetweenNumberAndLine;
+    float mNumberSize;
+    float mLineLength;
+    float mLongerLineLength;
+    float mLineWidth;
+    float mCircleButtonRadius;
+    float mCircleStrokeWidth;
+    float mTimerNumberSize;
+    float mTimerTextSize;
+    float mGapBetweenTimerNumberAndText;
+
+    // Paint, only created for the interned instance
+    Paint mCirclePaint;
+    Paint mHighlightLinePaint;
+    Paint mLinePaint;
+    Paint mCircleButtonPaint;
+    Paint mNumberPaint;
+    Paint mTimerNumberPaint;
+    Paint mTimerTextPaint;
+
+    // Static dial drawn with this style, most recently added last
+    private final DialLayer[] mDialLayers = new DialLayer[MAX_DIAL_LAYERS];
+    private int mNextDialLayer;
+
+    /**
+     * What changes between two styles, see {@link #diff(CircleTimerStyle)}
+     */
+    static final int CHANGED_COLOR = 1;
+    static final int CHANGED_DIAL = 1 << 1;
+    static final int CHANGED_TEXT_SIZE = 1 << 2;
+    static final int CHANGED_GEOMETRY = 1 << 3;
+
+    private CircleTimerStyle() {
+    }
+
+    /**
+     * Read the style attributes of {@link R.styleable#CircleTimerView}, missing ones get the default values
+     *
+     * @return the interned style
+     */
+    static CircleTimerStyle from(Context context, TypedArray ta) {
+        CircleTimerStyle style = new CircleTimerStyle();
+        style.setDefaults(context);
+        style.mCircleColor = ta.getColor(R.styleable.CircleTimerView_circleColor, style.mCircleColor);
+        style.mCircleButtonColor = ta.getColor(R.styleable.CircleTimerView_circleButtonColor, style.mCircleButtonColor);
+        style.mLineColor = ta.getColor(R.styleable.CircleTimerView_lineColor, style.mLineColor);
+        style.mHighlightLineColor = ta.getColor(R.styleable.CircleTimerView_highlightLineColor,
+                style.mHighlightLineColor);
+        style.mNumberColor = ta.getColor(R.styleable.CircleTimerView_numberColor, style.mNumberColor);
+        style.mTimerNumberColor = ta.getColor(R.styleable.CircleTimerView_timerNumberColor, style.mTimerNumberColor);
+        style.mTimerTextColor = ta.getColor(R.styleable.CircleTimerView_timerTextColor, style.mTimerTextColor);
+        style.mNumberSize = ta.getDimension(R.styleable.CircleTimerView_textSize, style.mNumberSize);
+        style.mTimerNumberSize = ta.getDimension(R.styleable.CircleTimerView_textTimeSize, style.mTimerNumberSize);
+        return intern(style);
+    }
+
+    private void setDefaults(Context context) {
+        DisplayMetrics metrics = context.getResources().getDisplayMetrics();
+        mCircleColor = CircleTimerView.DEFAULT_CIRCLE_COLOR;
+        mCircleButtonColor = CircleTimerView.DEFAULT_CIRCLE_BUTTON_COLOR;
+        mLineColor = CircleTimerView.DEFAULT_LINE_COLOR;
+        mHighlightLineColor = CircleTimerView.DEFAULT_HIGHLIGHT_LINE_COLOR;
+        mNumberColor = CircleTimerView.DEFAULT_NUMBER_COLOR;
+        mTimerNumberColor = CircleTimerView.DEFAULT_TIMER_NUMBER_COLOR;
+        mTimerTextColor = CircleTimerView.DEFAULT_TIMER_TEXT_COLOR;
+        mNumberSize = DensityUtils.sp2px(context, CircleTimerView.DEFAULT_NUMBER_SIZE);
+        mTimerNumberSize = DensityUtils.sp2px(context, CircleTimerView.DEFAULT_TIMER_NUMBER_SIZE);
+        // Same as TypedValue.applyDimension with COMPLEX_UNIT_DIP
+        mGapBetweenCircleAndLine = CircleTimerView.DEFAULT_GAP_BETWEEN_CIRCLE_AND_LINE * metrics.density;
+        mGapBetweenNumberAndLine = CircleTimerView.DEFAULT_GAP_BETWEEN_NUMBER_AND_LINE * metrics.density;
+        mLineLength = CircleTimerView.DEFAULT_LINE_LENGTH * metrics.density;
+        mLongerLineLength = CircleTimerView.DEFAULT_LONGER_LINE_LENGTH * metrics.density;
+        mLineWidth = CircleTimerView.DEFAULT_LINE_WIDTH * metrics.density;
+        mCircleButtonRadius = CircleTimerView.DEFAULT_CIRCLE_BUTTON_RADIUS * metrics.density;
+        mCircleStrokeWidth = CircleTimerView.DEFAULT_CIRCLE_STROKE_WIDTH * metrics.density;
+        mTimerTextSize = CircleTimerView.DEFAULT_TIMER_TEXT_SIZE * metrics.density;
+        mGapBetweenTimerNumberAndText = CircleTimerView.DEFAULT_GAP_BETWEEN_TIMER_NUMBER_AND_TEXT * metrics.density;
+    }
+
+    private void copyFrom(CircleTimerStyle style) {
+        mCircleColor = style.mCircleColor;
+        mCircleButtonColor = style.mCircleButtonColor;
+        mLineColor = style.mLineColor;
+        mHighlightLineColor = style.mHighlightLineColor;
+        mNumberColor = style.mNumberColor;
+        mTimerNumberColor = style.mTimerNumberColor;
+        mTimerTextColor = style.mTimerTextColor;
+        mGapBetweenCircleAndLine = style.mGapBetweenCircleAndLine;
+        mGapBetweenNumberAndLine = style.mGapBetweenNumberAndLine;
+        mNumberSize = style.mNumberSize;
+        mLineLength = style.mLineLength;
+        mLongerLineLength = style.mLongerLineLength;
+        mLineWidth = style.mLineWidth;
+        mCircleButtonRadius = style.mCircleButtonRadius;
+        mCircleStrokeWidth = style.mCircleStrokeWidth;
+        mTimerNumberSize = style.mTimerNumberSize;
+        mTimerTextSize = style.mTimerTextSize;
+        mGapBetweenTimerNumberAndText = style.mGapBetweenTimerNumberAndText;
+    }
+
+    /**
+     * Compare with the style a view is switched to
+     *
+     * @return the CHANGED flags of what the view has to update, 0 when the styles look the same
+     */
+    int diff(CircleTimerStyle style) {
+        int changes = 0;
+        if (mCircleColor != style.mCircleColor || mCircleButtonColor != style.mCircleButtonColor
+                || mHighlightLineColor != style.mHighlightLineColor || mTimerNumberColor != style.mTimerNumberColor
+                || mTimerTextColor != style.mTimerTextColor) {
+            changes |= CHANGED_COLOR;
+        }
+        if (mLineColor != style.mLineColor || mNumberColor != style.mNumberColor
+                || mLineWidth != style.mLineWidth) {
+            changes |= CHANGED_DIAL;
+        }
+        if (mNumberSize != style.mNumberSize || mTimerNumberSize != style.mTimerNumberSize
+                || mTimerTextSize != style.mTimerTextSize) {
+            changes |= CHANGED_TEXT_SIZE | CHANGED_DIAL;
+        }
+        if (mGapBetweenCircleAndLine != style.mGapBetweenCircleAndLine
+                || mGapBetweenNumberAndLine != style.mGapBetweenNumberAndLine
+                || mLineLength != style.mLineLength || mLongerLineLength != style.mLongerLineLength
+                || mCircleButtonRadius != style.mCircleButtonRadius || mCircleStrokeWidth != style.mCircleStrokeWidth
+                || mGapBetweenTimerNumberAndText != style.mGapBetweenTimerNumberAndText) {
+            changes |= CHANGED_GEOMETRY | CHANGED_DIAL;
+        }
+        return changes;
+    }
+
+    /**
+     * @return the shared instance equal to the style, with its paints created
+     */
+    static synchronized CircleTimerStyle intern(CircleTimerStyle style) {
+        WeakReference<CircleTimerStyle> reference = sInterned.get(style);
+        CircleTimerStyle interned = reference != null ? reference.get() : null;
+        if (interned == null) {
+            style.createPaints();
+            sInterned.put(style, new WeakReference<CircleTimerStyle>(style));
+            interned = style;
+        }
+        return interned;
+    }
+
+    private void createPaints() {
+        // CirclePaint
+        mCirclePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        mCirclePaint.setColor(mCircleColor);
+        mCirclePaint.setStyle(Paint.Style.STROKE);
+        mCirclePaint.setStrokeWidth(mCircleStrokeWidth);
+
+        // CircleButtonPaint
+        mCircleButtonPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        mCircleButtonPaint.setColor(mCircleButtonColor);
+        mCircleButtonPaint.setStyle(Paint.Style.FILL);
+
+        // LinePaint
+        mLinePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        mLinePaint.setColor(mLineColor);
+        mLinePaint.setStrokeWidth(mLineWidth);
+
+        // HighlightLinePaint
+        mHighlightLinePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        mHighlightLinePaint.setColor(mHighlightLineColor);
+        mHighlightLinePaint.setStrokeWidth(mLineWidth);
+
+        // NumberPaint
+        mNumberPaint = createTextPaint(mNumberColor, mNumberSize);
+        // TimerNumberPaint
+        mTimerNumberPaint = createTextPaint(mTimerNumberColor, mTimerNumberSize);
+        // TimerTextPaint
+        mTimerTextPaint = createTextPaint(mTimerTextColor, mTimerTextSize);
+    }
+
+    private static Paint createTextPaint(int color, float size) {
+        Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        paint.setColor(color);
+        paint.setTextSize(size);
+        paint.setTextAlign(Paint.Align.CENTER);
+        return paint;
+    }
+
+    /**
+     * Find a static dial drawn with this style for a view of the given size, tick count and labels
+     *
+     * @return the layer, or null when none was drawn yet
+     */
+    Bitmap findDialLayer(int width, int height, int tickCount, String[] labels) {
+        for (DialLayer layer : mDialLayers) {
+            if (layer != null && layer.mWidth == width && layer.mHeight == height && layer.mTickCount == tickCount
+                    && Arrays.equals(layer.mLabels, labels)) {
+                return layer.mBitmap;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Share a static dial with the other views of this style, the oldest layer is dropped when there are too many.
+     * Layers are never recycled, a dropped one stays valid for the views still drawing it
+     */
+    void putDialLayer(int width, int height, int tickCount, String[] labels, Bitmap bitmap) {
+        mDialLayers[mNextDialLayer] = new DialLayer(width, height, tickCount, labels, bitmap);
+        mNextDialLayer = (mNextDialLayer + 1) % MAX_DIAL_LAYERS;
+    }
+
+    /**
+     * @return color of the circle
+     */
+    public int getCircleColor() {
+        return mCircleColor;
+    }
+
+    /**
+     * @return color of the circle button
+     */
+    public int getCircleButtonColor() {
+        return mCircleButtonColor;
+    }
+
+    /**
+     * @return color of the ticks
+     */
+    public int getLineColor() {
+        return mLineColor;
+    }
+
+    /**
+     * @return color of the highlighted ticks
+     */
+    public int getHighlightLineColor() {
+        return mHighlightLineColor;
+    }
+
+    /**
+     * @return color of the dial labels
+     */
+    public int getNumberColor() {
+        return mNumberColor;
+    }
+
+    /**
+     * @return color of the timer number
+     */
+    public int getTimerNumberColor() {
+        return mTimerNumberColor;
+    }
+
+    /**
+     * @return color of the hint text
+     */
+    public int getTimerTextColor() {
+        return mTimerTextColor;
+    }
+
+    /**
+     * @return gap between the circle and the ticks in px
+     */
+    public float getGapBetweenCircleAndLine() {
+        return mGapBetweenCircleAndLine;
+    }
+
+    /**
+     * @return gap between the ticks and the dial labels in px
+     */
+    public float getGapBetweenNumberAndLine() {
+        return mGapBetweenNumberAndLine;
+    }
+
+    /**
+     * @return text size of the dial labels in px
+     */
+    public float getNumberSize() {
+        return mNumberSize;
+    }
+
+    /**
+     * @return length of the ticks in px
+     */
+    public float getLineLength() {
+        return mLineLength;
+    }
+
+    /**
+     * @return length of the quarter ticks in px
+     */
+    public float getLongerLineLength() {
+        return mLongerLineLength;
+    }
+
+    /**
+     * @return width of the ticks in px
+     */
+    public float getLineWidth() {
+        return mLineWidth;
+    }
+
+    /**
+     * @return radius of the circle button in px
+     */
+    public float getCircleButtonRadius() {
+        return mCircleButtonRadius;
+    }
+
+    /**
+     * @return stroke width of the circle in px
+     */
+    public float getCircleStrokeWidth() {
+        return mCircleStrokeWidth;
+    }
+
+    /**
+     * @return text size of the timer number in px
+     */
+    public float getTimerNumberSize() {
+        return mTimerNumberSize;
+    }
+
+    /**
+     * @return text size of the hint text in px
+     */
+    public float getTimerTextSize() {
+        return mTimerTextSize;
+    }
+
+    /**
+     * @return gap between the timer number and the hint text in px
+     */
+    public float getGapBetweenTimerNumberAndText() {
+        return mGapBetweenTimerNumberAndText;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CircleTimerStyle)) {
+            return false;
+        }
+        CircleTimerStyle style = (CircleTimerStyle) o;
+        return mCircleColor == style.mCircleColor
+                && mCircleButtonColor == style.mCircleButtonColor
+                && mLineColor == style.mLineColor
+                && mHighlightLineColor == style.mHighlightLineColor
+                && mNumberColor == style.mNumberColor
+                && mTimerNumberColor == style.mTimerNumberColor
+                && mTimerTextColor == style.mTimerTextColor
+                && Float.compare(mGapBetweenCircleAndLine, style.mGapBetweenCircleAndLine) == 0
+                && Float.compare(mGapBetweenNumberAndLine, style.mGapBetweenNumberAndLine) == 0
+                && Float.compare(mNumberSize, style.mNumberSize) == 0
+                && Float.compare(mLineLength, style.mLineLength) == 0
+                && Float.compare(mLongerLineLength, style.mLongerLineLength) == 0
+                && Float.compare(mLineWidth, style.mLineWidth) == 0
+                && Float.compare(mCircleButtonRadius, style.mCircleButtonRadius) == 0
+                && Float.compare(mCircleStrokeWidth, style.mCircleStrokeWidth) == 0
+                && Float.compare(mTimerNumberSize, style.mTimerNumberSize) == 0
+                && Float.compare(mTimerTextSize, style.mTimerTextSize) == 0
+                && Float.compare(mGapBetweenTimerNumberAndText, style.mGapBetweenTimerNumberAndText) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = mCircleColor;
+        result = 31 * result + mCircleButtonColor;
+        result = 31 * result + mLineColor;
+        result = 31 * result + mHighlightLineColor;
+        result = 31 * result + mNumberColor;
+        result = 31 * result + mTimerNumberColor;
+        result = 31 * result + mTimerTextColor;
+        result = 31 * result + Float.floatToIntBits(mGapBetweenCircleAndLine);
+        result = 31 * result + Float.floatToIntBits(mGapBetweenNumberAndLine);
+        result = 31 * result + Float.floatToIntBits(mNumberSize);
+        result = 31 * result + Float.floatToIntBits(mLineLength);
+        result = 31 * result + Float.floatToIntBits(mLongerLineLength);
+        result = 31 * result + Float.floatToIntBits(mLineWidth);
+        result = 31 * result + Float.floatToIntBits(mCircleButtonRadius);
+        result = 31 * result + Float.floatToIntBits(mCircleStrokeWidth);
+        result = 31 * result + Float.floatToIntBits(mTimerNumberSize);
+        result = 31 * result + Float.floatToIntBits(mTimerTextSize);
+        result = 31 * result + Float.floatToIntBits(mGapBetweenTimerNumberAndText);
+        return result;
+    }
+
+    /**
+     * Builds styles, every {@link #build()} returns the interned instance of the values set
+     */
+    public static final class Builder {
+
+        private final CircleTimerStyle mValues = new CircleTimerStyle();
+
+        /**
+         * Start from the default style
+         */
+        public Builder(Context context) {
+            mValues.setDefaults(context);
+        }
+
+        /**
+         * Start from the values of a style, e.g. the one of a view
+         */
+        public Builder(CircleTimerStyle style) {
+            mValues.copyFrom(style);
+        }
+
+        public Builder setCircleColor(int color) {
+            mValues.mCircleColor = color;
+            return this;
+        }
+
+        public Builder setCircleButtonColor(int color) {
+            mValues.mCircleButtonColor = color;
+            return this;
+        }
+
+        public Builder setLineColor(int color) {
+            mValues.mLineColor = color;
+            return this;
+        }
+
+        public Builder setHighlightLineColor(int color) {
+            mValues.mHighlightLineColor = color;
+            return this;
+        }
+
+        public Builder setNumberColor(int color) {
+            mValues.mNumberColor = color;
+            return this;
+        }
+
+        public Builder setTimerNumberColor(int color) {
+            mValues.mTimerNumberColor = color;
+            return this;
+        }
+
+        public Builder setTimerTextColor(int color) {
+            mValues.mTimerTextColor = color;
+            return this;
+        }
+
+        public Builder setGapBetweenCircleAndLine(float px) {
+            mValues.mGapBetweenCircleAndLine = px;
+            return this;
+        }
+
+        public Builder setGapBetweenNumberAndLine(float px) {
+            mValues.mGapBetweenNumberAndLine = px;
+            return this;
+        }
+
+        public Builder setNumberSize(float px) {
+            mValues.mNumberSize = px;
+            return this;
+        }
+
+        public Builder setLineLength(float px) {
+            mValues.mLineLength = px;
+            return this;
+        }
+
+        public Builder setLongerLineLength(float px) {
+            mValues.mLongerLineLength = px;
+            return this;
+        }
+
+        public Builder setLineWidth(float px) {
+            mValues.mLineWidth = px;
+            return this;
+        }
+
+        public Builder setCircleButtonRadius(float px) {
+            mValues.mCircleButtonRadius = px;
+            return this;
+        }
+
+        public Builder setCircleStrokeWidth(float px) {
+            mValues.mCircleStrokeWidth = px;
+            return this;
+        }
+
+        public Builder setTimerNumberSize(float px) {
+            mValues.mTimerNumberSize = px;
+            return this;
+        }
+
+        public Builder setTimerTextSize(float px) {
+            mValues.mTimerTextSize = px;
+            return this;
+        }
+
+        public Builder setGapBetweenTimerNumberAndText(float px) {
+            mValues.mGapBetweenTimerNumberAndText = px;
+            return this;
+        }
+
+        /**
+         * @return the interned style, its paints are only created when no view uses the same values yet
+         */
+        public CircleTimerStyle build() {
+            CircleTimerStyle style = new CircleTimerStyle();
+            style.copyFrom(mValues);
+            return intern(style);
+        }
+    }
+
+    /**
+     * Static dial bitmap and what it was drawn for
+     */
+    private static final class DialLayer {
+        final int mWidth;
+        final int mHeight;
+        final int mTickCount;
+        final String[] mLabels;
+        final Bitmap mBitmap;
+
+        DialLayer(int width, int height, int tickCount, String[] labels, Bitmap bitmap) {
+            mWidth = width;
+            mHeight = height;
+            mTickCount = tickCount;
+            mLabels = labels;
+            mBitmap = bitmap;
+        }
+    }
+}
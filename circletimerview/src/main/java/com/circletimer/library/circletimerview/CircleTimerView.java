@@ -1,30 +1,47 @@
 package com.circletimer.library.circletimerview;
 
 import android.content.Context;
+import android.content.res.Resources;
 import android.content.res.TypedArray;
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Paint;
+import android.graphics.Picture;
 import android.graphics.Rect;
+import android.graphics.RectF;
+import android.os.Build;
 import android.os.Bundle;
-import android.os.Handler;
-import android.os.Message;
 import android.os.Parcelable;
+import android.os.SystemClock;
+import android.os.Trace;
+import android.provider.Settings;
 import android.util.AttributeSet;
+import android.util.Base64;
 import android.util.Log;
 import android.util.TypedValue;
+import android.view.HapticFeedbackConstants;
 import android.view.MotionEvent;
 import android.view.View;
+import android.view.ViewTreeObserver;
+import android.view.accessibility.AccessibilityEvent;
+import android.view.accessibility.AccessibilityManager;
+import android.view.accessibility.AccessibilityNodeInfo;
 
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.concurrent.Executor;
 
 public class CircleTimerView extends View {
 
     protected static final String TAG = "CircleTimerView";
+    // Debug logging is compiled out of release code paths, onDraw and the timer tick must not log
+    protected static final boolean DEBUG = false;
 
     // Status
     protected static final String INSTANCE_STATUS = "instance_status";
-    protected static final String STATUS_RADIAN = "status_radian";
+    protected static final String STATUS_RECORD = "status_record";
+    protected static final String STATUS_HINT_TEXT = "status_hint_text";
+
+    // Shared preferences holding the records of the views with a persistence key
+    protected static final String PREFERENCES_NAME = "circle_timer_view";
 
     // Default dimension in dp/pt
     protected static final float DEFAULT_GAP_BETWEEN_CIRCLE_AND_LINE = 5;
@@ -38,6 +55,48 @@ public class CircleTimerView extends View {
     protected static final float DEFAULT_TIMER_NUMBER_SIZE = 50;
     protected static final float DEFAULT_TIMER_TEXT_SIZE = 14;
     protected static final float DEFAULT_GAP_BETWEEN_TIMER_NUMBER_AND_TEXT = 30;
+    protected static final int DEFAULT_TICK_COUNT = 120;
+    protected static final int DEFAULT_SWEEP_FRAME_RATE = 60;
+
+    /**
+     * Sweep frame rate that redraws only when the highlighted ticks change
+     */
+    public static final int SWEEP_FRAME_RATE_ON_TICK_CHANGE = 0;
+
+    /**
+     * Render backends, see {@link #setRenderBackend(int)}
+     */
+    public static final int RENDER_BACKEND_DEFAULT = 0;
+    public static final int RENDER_BACKEND_SOFTWARE = 1;
+    public static final int RENDER_BACKEND_HARDWARE_LAYER = 2;
+    public static final int RENDER_BACKEND_DISPLAY_LIST = 3;
+
+    /**
+     * Formats of the timer text, see {@link #setTimeFormat(int)}
+     */
+    public static final int TIME_FORMAT_HOUR_MINUTE = 0;
+    public static final int TIME_FORMAT_MINUTE_SECOND = 1;
+    public static final int TIME_FORMAT_HOUR_MINUTE_SECOND = 2;
+    public static final int TIME_FORMAT_MINUTE_SECOND_TENTHS = 3;
+
+    /**
+     * Ways to draw the timer number, see {@link #setDigitCache(int)}
+     */
+    public static final int DIGIT_CACHE_NONE = 0;
+    public static final int DIGIT_CACHE_PATHS = 1;
+    public static final int DIGIT_CACHE_BITMAPS = 2;
+
+    // Default range of one turn of the dial in seconds
+    protected static final int DEFAULT_DIAL_RANGE = 3600;
+
+    // Whole turns are drawn as segments of the outer ring up to this count, then as the full ring
+    protected static final int MAX_TURN_SEGMENTS = 12;
+    protected static final float TURN_SEGMENT_GAP = 6;
+
+    // Default accessibility announcement interval and adjustment step in seconds
+    protected static final int DEFAULT_ACCESSIBILITY_INTERVAL = 60;
+    protected static final int DEFAULT_ACCESSIBILITY_STEP = 60;
+    protected static final String ACCESSIBILITY_CLASS_NAME = "android.widget.SeekBar";
 
     // Default color
     protected static final int DEFAULT_CIRCLE_COLOR = 0xFFE9E2D9;
@@ -48,7 +107,10 @@ public class CircleTimerView extends View {
     protected static final int DEFAULT_TIMER_NUMBER_COLOR = 0xFFFA7777;
     protected static final int DEFAULT_TIMER_TEXT_COLOR = 0x99000000;
 
-    // Paint
+    // Style, shared with the other views of the same attributes
+    protected CircleTimerStyle mStyle;
+
+    // Paint, owned by the style and shared, do not modify
     protected Paint mCirclePaint;
     protected Paint mHighlightLinePaint;
     protected Paint mLinePaint;
@@ -87,44 +149,143 @@ public class CircleTimerView extends View {
     protected float mCx;
     protected float mCy;
     protected float mRadius;
-    protected float mCurrentRadian;
-    protected float mPreRadian;
+    protected float mCurrentRadian; // angle within the shown turn
+    protected int mCurrentTurns; // whole turns before the shown one
+    protected final RectF mTurnBounds = new RectF();
+    protected final AngleTracker mAngleTracker = new AngleTracker();
     protected boolean mIsInCircleButton;
     protected int mCurrentTime; // seconds
-    protected boolean mStarted;
+    protected long mCurrentMillis; // displayed time, mCurrentTime before rounding
     protected String mHintText;
 
-    // TimerTask
-    protected Timer timer = new Timer();
+    // Cached text metrics and buffers, so that onDraw does not allocate
+    protected float mNumberFontHeight;
+    protected float mTimerNumberFontHeight;
+    protected float mTimerTextFontHeight;
+    protected final Rect mTextBounds = new Rect();
+    protected final char[] mTimerText = new char[TimeFormatter.MAX_LENGTH];
+    protected int mDigitCache;
+    protected final DigitRenderer mDigitRenderer = new DigitRenderer();
+
+    // State of the last drawn frame, used to invalidate only what changed
+    protected boolean mDrawn;
+    protected float mDrawnRadian;
+    protected int mDrawnTurns;
+    protected int mDrawnHighlightCount;
+    protected long mDrawnTextValue;
+    protected String mDrawnHintText;
+    protected final float[] mBounds = new float[4];
+    protected final float[] mDirtyBounds = new float[4];
+    protected boolean mDirtyEmpty;
+
+    // Dial scale and labels, the label positions are computed once per layout
+    protected long mTurnMillis;
+    protected int mTimeFormat;
+    protected String[] mLabels;
+    protected boolean mCustomLabels;
+    protected float[] mLabelX = new float[0];
+    protected float[] mLabelY = new float[0];
+
+    // Ticks
+    protected int mTickCount;
+    protected final TickGeometry mTickGeometry = new TickGeometry();
 
-    protected TimerTask timerTask;
+    // Dial cache
+    protected boolean mDialCacheEnabled;
+    protected Bitmap mDialCache;
+    protected boolean mDialCacheValid;
+    protected int mRenderBackend;
+    protected Picture mDialPicture;
+    protected boolean mDialPictureValid;
 
-    protected Handler handler = new Handler() {
+    // Countdown, the engine runs on the tick engine clock and is the source of the displayed time and radian
+    protected TickEngine mTickEngine = HandlerTickEngine.getShared();
+    protected final CountdownEngine mOwnCountdown = new CountdownEngine(new CountdownEngine.Clock() {
         @Override
-        public void handleMessage(Message msg) {
-            Log.d(TAG, "handleMessage");
-            super.handleMessage(msg);
-            if (mCurrentRadian > 0 && mCurrentTime > 0) {
-                mCurrentRadian -= (2 * Math.PI) / 3600;
-                mCurrentTime--;
-                if (mCircleTimerListener != null) {
-                    mCircleTimerListener.onTimerTimingValueChanged(mCurrentTime);
-                }
-            } else {
-                mCurrentRadian = 0;
-                mCurrentTime = 0;
-                timer.cancel();
-                mStarted = false;
-                if (mCircleTimerListener != null) {
-                    mCircleTimerListener.onTimerStop();
-                }
+        public long now() {
+            return mTickEngine.now();
+        }
+    });
+    // The own countdown, or the one of the model the view is bound to
+    protected CountdownEngine mCountdown = mOwnCountdown;
+
+    // Persistence, the state is written under the key on every state change, null disables it
+    protected String mPersistenceKey;
+
+    // Sweep, the circle button follows the deadline on every frame instead of jumping once per second
+    protected boolean mSweepEnabled;
+    protected int mSweepFrameRate;
+    protected boolean mAttached;
+
+    // Power save, a running timer that cannot be seen only wakes up at its deadline
+    protected boolean mPowerSaveEnabled;
+    protected boolean mVisible;
+    protected final Rect mVisibleRect = new Rect();
+    protected ViewTreeObserver.OnScrollChangedListener mScrollChangedListener;
+    protected ViewTreeObserver.OnGlobalLayoutListener mGlobalLayoutListener;
+    protected FrameScheduler mSweepScheduler;
+
+    protected final Runnable mSweepFrame = new Runnable() {
+        @Override
+        public void run() {
+            onSweepFrame();
+        }
+    };
+
+    protected final TickEngine.DeadlineCallback mTickCallback = new TickEngine.DeadlineCallback() {
+        @Override
+        public long onTick(long now) {
+            if (mTimerMetrics != null) {
+                // The delay after the aligned time the engine woke up for, not after the requested one
+                mTimerMetrics.onTick(mTickEngine.getTickTime(this), now);
             }
-            invalidate();
+            return onTimerTick(now);
+        }
+
+        @Override
+        public long getDeadline() {
+            return mCountdown.isRunning() ? mCountdown.getDeadline() : -1;
         }
     };
 
     // Runt
     protected CircleTimerListener mCircleTimerListener;
+    protected final TimerEventBus mEventBus = new TimerEventBus();
+
+    // Touch, drag values are reported once per change, or once per frame when coalescing
+    protected boolean mTouchCoalescingEnabled;
+    protected int mValueStep;
+    protected int mReportedSetValue;
+    protected boolean mSetValuePending;
+    protected FrameScheduler mTouchScheduler;
+
+    // Detents, the dragged angle snaps to the nearest detent and nothing is reported or drawn until it changes
+    protected int[] mDetents;
+    protected int mDetentStep;
+    protected DetentTable mDetentTable;
+    protected boolean mDetentHapticsEnabled;
+
+    // Finger position as whole turns and the angle within the turn, so long drags keep their precision
+    protected int mTouchTurns;
+    protected double mTouchRadian;
+
+    protected final Runnable mTouchFrame = new Runnable() {
+        @Override
+        public void run() {
+            flushSetValue();
+        }
+    };
+
+    // Accessibility, the spoken text is only rebuilt and announced when the announced value or the state changes
+    protected AccessibilityManager mAccessibilityManager;
+    protected int mAccessibilityInterval;
+    protected int mAnnouncedValue = -1;
+    protected boolean mAnnouncedRunning;
+    protected CharSequence mAccessibilityText;
+
+    // Metrics, nothing is measured while they are null
+    protected TimerMetrics mTimerMetrics;
+    protected long mTouchEventTime = -1;
 
     public CircleTimerView(Context context) {
         this(context, null);
@@ -140,91 +301,90 @@ public class CircleTimerView extends View {
     }
 
     private void initialize(Context context, AttributeSet attrs, int defStyleAttr) {
-        Log.d(TAG, "initialize");
-
-        // Set default dimension or read xml attributes
-        mGapBetweenCircleAndLine = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, DEFAULT_GAP_BETWEEN_CIRCLE_AND_LINE,
-                getContext().getResources().getDisplayMetrics());
-        mGapBetweenNumberAndLine = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, DEFAULT_GAP_BETWEEN_NUMBER_AND_LINE,
-                getContext().getResources().getDisplayMetrics());
-//        mNumberSize = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, DEFAULT_NUMBER_SIZE, getContext().getResources()
-//                .getDisplayMetrics());
-        mLineLength = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, DEFAULT_LINE_LENGTH, getContext().getResources()
-                .getDisplayMetrics());
-        mLongerLineLength = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, DEFAULT_LONGER_LINE_LENGTH, getContext()
-                .getResources().getDisplayMetrics());
-        mLineWidth = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, DEFAULT_LINE_WIDTH, getContext().getResources()
-                .getDisplayMetrics());
-        mCircleButtonRadius = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, DEFAULT_CIRCLE_BUTTON_RADIUS, getContext()
-                .getResources().getDisplayMetrics());
-        mCircleStrokeWidth = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, DEFAULT_CIRCLE_STROKE_WIDTH, getContext()
-                .getResources().getDisplayMetrics());
-//        mTimerNumberSize = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, DEFAULT_TIMER_NUMBER_SIZE, getContext()
-//                .getResources().getDisplayMetrics());
-        mTimerTextSize = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, DEFAULT_TIMER_TEXT_SIZE, getContext()
-                .getResources().getDisplayMetrics());
-        mGapBetweenTimerNumberAndText = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP,
-                DEFAULT_GAP_BETWEEN_TIMER_NUMBER_AND_TEXT, getContext().getResources().getDisplayMetrics());
-
-        // Set default color or read xml attributes
+        if (DEBUG) Log.d(TAG, "initialize");
+
+        // Set default dimension and color or read xml attributes, views with the same ones share the style
         TypedArray ta = context.obtainStyledAttributes(attrs, R.styleable.CircleTimerView, defStyleAttr, 0);
-        mCircleColor = ta.getColor(R.styleable.CircleTimerView_circleColor, DEFAULT_CIRCLE_COLOR);
-        mCircleButtonColor = ta.getColor(R.styleable.CircleTimerView_circleButtonColor, DEFAULT_CIRCLE_BUTTON_COLOR);
-        mLineColor = ta.getColor(R.styleable.CircleTimerView_lineColor, DEFAULT_LINE_COLOR);
-        mHighlightLineColor = ta.getColor(R.styleable.CircleTimerView_highlightLineColor, DEFAULT_HIGHLIGHT_LINE_COLOR);
-        mNumberColor = ta.getColor(R.styleable.CircleTimerView_numberColor, DEFAULT_NUMBER_COLOR);
-        mTimerNumberColor = ta.getColor(R.styleable.CircleTimerView_timerNumberColor, DEFAULT_TIMER_NUMBER_COLOR);
-        mTimerTextColor = ta.getColor(R.styleable.CircleTimerView_timerTextColor, DEFAULT_TIMER_TEXT_COLOR);
-        mNumberSize = ta.getDimension(R.styleable.CircleTimerView_textSize, DensityUtils.sp2px(context, DEFAULT_NUMBER_SIZE));
-        mTimerNumberSize = ta.getDimension(R.styleable.CircleTimerView_textTimeSize, DensityUtils.sp2px(context, DEFAULT_TIMER_NUMBER_SIZE));
+        applyStyle(CircleTimerStyle.from(context, ta));
+        mTickCount = Math.max(1, ta.getInt(R.styleable.CircleTimerView_tickCount, DEFAULT_TICK_COUNT));
+        mDialCacheEnabled = ta.getBoolean(R.styleable.CircleTimerView_dialCacheEnabled, false);
+        mTouchCoalescingEnabled = ta.getBoolean(R.styleable.CircleTimerView_touchCoalescingEnabled, false);
+        mValueStep = Math.max(0, ta.getInt(R.styleable.CircleTimerView_valueStep, 0));
+        int detentsId = ta.getResourceId(R.styleable.CircleTimerView_detents, 0);
+        mDetents = detentsId != 0 ? context.getResources().getIntArray(detentsId) : null;
+        mDetentStep = Math.max(0, ta.getInt(R.styleable.CircleTimerView_detentStep, 0));
+        mDetentHapticsEnabled = ta.getBoolean(R.styleable.CircleTimerView_detentHapticsEnabled, true);
+        mPowerSaveEnabled = ta.getBoolean(R.styleable.CircleTimerView_powerSaveEnabled, false);
+        mAccessibilityInterval = Math.max(0, ta.getInt(R.styleable.CircleTimerView_accessibilityAnnounceInterval,
+                DEFAULT_ACCESSIBILITY_INTERVAL));
+        mRenderBackend = ta.getInt(R.styleable.CircleTimerView_renderBackend, RENDER_BACKEND_DEFAULT);
+        mSweepEnabled = ta.getBoolean(R.styleable.CircleTimerView_sweepEnabled, false);
+        mSweepFrameRate = Math.max(SWEEP_FRAME_RATE_ON_TICK_CHANGE, ta.getInt(R.styleable.CircleTimerView_sweepFrameRate,
+                DEFAULT_SWEEP_FRAME_RATE));
+        String persistenceKey = ta.getString(R.styleable.CircleTimerView_persistenceKey);
+        mTurnMillis = Math.max(1, ta.getInt(R.styleable.CircleTimerView_dialRange, DEFAULT_DIAL_RANGE)) * 1000L;
+        mTimeFormat = ta.getInt(R.styleable.CircleTimerView_timeFormat, TIME_FORMAT_HOUR_MINUTE);
+        mDigitCache = ta.getInt(R.styleable.CircleTimerView_digitCache, DIGIT_CACHE_NONE);
+        mDigitRenderer.setRasterized(mDigitCache == DIGIT_CACHE_BITMAPS);
+        CharSequence[] labels = ta.getTextArray(R.styleable.CircleTimerView_labels);
+        if (labels != null) {
+            mLabels = new String[labels.length];
+            for (int i = 0; i < labels.length; i++) {
+                mLabels[i] = labels[i].toString();
+            }
+            mCustomLabels = true;
+        } else {
+            mLabels = createDefaultLabels(mTurnMillis);
+        }
         ta.recycle();
-
-
-        // Init all paints
-        mCirclePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-        mCircleButtonPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-        mHighlightLinePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-        mLinePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-        mNumberPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-        mTimerNumberPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-        mTimerTextPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-
-        // CirclePaint
-        mCirclePaint.setColor(mCircleColor);
-        mCirclePaint.setStyle(Paint.Style.STROKE);
-        mCirclePaint.setStrokeWidth(mCircleStrokeWidth);
-
-        // CircleButtonPaint
-        mCircleButtonPaint.setColor(mCircleButtonColor);
-        mCircleButtonPaint.setAntiAlias(true);
-        mCircleButtonPaint.setStyle(Paint.Style.FILL);
-
-        // LinePaint
-        mLinePaint.setColor(mLineColor);
-        mLinePaint.setStrokeWidth(mLineWidth);
-
-        // HighlightLinePaint
-        mHighlightLinePaint.setColor(mHighlightLineColor);
-        mHighlightLinePaint.setStrokeWidth(mLineWidth);
-
-        // NumberPaint
-        mNumberPaint.setColor(mNumberColor);
-        mNumberPaint.setTextSize(mNumberSize);
-        mNumberPaint.setTextAlign(Paint.Align.CENTER);
-
-        // TimerNumberPaint
-        mTimerNumberPaint.setColor(mTimerNumberColor);
-        mTimerNumberPaint.setTextSize(mTimerNumberSize);
-        mTimerNumberPaint.setTextAlign(Paint.Align.CENTER);
-
-        // TimerTextPaint
-        mTimerTextPaint.setColor(mTimerTextColor);
-        mTimerTextPaint.setTextSize(mTimerTextSize);
-        mTimerTextPaint.setTextAlign(Paint.Align.CENTER);
+        updateDetentTable();
 
         mHintText = "";
-        // Solve the target version related to shadow
-        // setLayerType(View.LAYER_TYPE_SOFTWARE, null); // use this, when targetSdkVersion is greater than or equal to api 14
+        mAccessibilityManager = (AccessibilityManager) context.getSystemService(Context.ACCESSIBILITY_SERVICE);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN
+                && getImportantForAccessibility() == IMPORTANT_FOR_ACCESSIBILITY_AUTO) {
+            setImportantForAccessibility(IMPORTANT_FOR_ACCESSIBILITY_YES);
+        }
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT
+                && getAccessibilityLiveRegion() == ACCESSIBILITY_LIVE_REGION_NONE) {
+            // Announced through content change events, only sent by updateAccessibility
+            setAccessibilityLiveRegion(ACCESSIBILITY_LIVE_REGION_POLITE);
+        }
+        updateTextMetrics();
+        applyRenderBackend();
+        setPersistenceKey(persistenceKey);
+    }
+
+    /**
+     * Take the colors, sizes and paints of the style
+     */
+    private void applyStyle(CircleTimerStyle style) {
+        mStyle = style;
+        mCircleColor = style.mCircleColor;
+        mCircleButtonColor = style.mCircleButtonColor;
+        mLineColor = style.mLineColor;
+        mHighlightLineColor = style.mHighlightLineColor;
+        mNumberColor = style.mNumberColor;
+        mTimerNumberColor = style.mTimerNumberColor;
+        mTimerTextColor = style.mTimerTextColor;
+        mGapBetweenCircleAndLine = style.mGapBetweenCircleAndLine;
+        mGapBetweenNumberAndLine = style.mGapBetweenNumberAndLine;
+        mNumberSize = style.mNumberSize;
+        mLineLength = style.mLineLength;
+        mLongerLineLength = style.mLongerLineLength;
+        mLineWidth = style.mLineWidth;
+        mCircleButtonRadius = style.mCircleButtonRadius;
+        mCircleStrokeWidth = style.mCircleStrokeWidth;
+        mTimerNumberSize = style.mTimerNumberSize;
+        mTimerTextSize = style.mTimerTextSize;
+        mGapBetweenTimerNumberAndText = style.mGapBetweenTimerNumberAndText;
+        mCirclePaint = style.mCirclePaint;
+        mCircleButtonPaint = style.mCircleButtonPaint;
+        mHighlightLinePaint = style.mHighlightLinePaint;
+        mLinePaint = style.mLinePaint;
+        mNumberPaint = style.mNumberPaint;
+        mTimerNumberPaint = style.mTimerNumberPaint;
+        mTimerTextPaint = style.mTimerTextPaint;
     }
 
     @Override
@@ -233,78 +393,330 @@ public class CircleTimerView extends View {
 //        canvas.drawColor(Color.RED);
         // canvas.drawLine(mCx, 0, mCx, getHeight(), new Paint());
         // canvas.drawLine(0, mCy, getWidth(), mCy, new Paint());
-        Log.d(TAG, "onDraw");
+        if (DEBUG) Log.d(TAG, "onDraw");
+        if (mTimerMetrics == null) {
+            drawContent(canvas);
+        } else {
+            drawContentMeasured(canvas);
+        }
+        mDrawn = true;
+        mDrawnRadian = mCurrentRadian;
+        mDrawnTurns = mCurrentTurns;
+        mDrawnHighlightCount = mTickGeometry.getHighlightedCount(mCurrentRadian);
+        mDrawnTextValue = TimeFormatter.displayedValue(mCurrentMillis, mTimeFormat);
+        mDrawnHintText = mHintText;
+        super.onDraw(canvas);
+    }
+
+    /**
+     * Draw the view
+     *
+     * @return number of canvas calls issued
+     */
+    private int drawContent(Canvas canvas) {
         // Content
-        canvas.save();
-        for (int i = 0; i < 120; i++) {
-            canvas.save();
-            canvas.rotate(360 / 120 * i, mCx, mCy);
-            if (i % 30 == 0) {
-                if (360 / 120 * i <= Math.toDegrees(mCurrentRadian)) {
-                    canvas.drawLine(mCx, getMeasuredHeight() / 2 - mRadius + mCircleStrokeWidth / 2 + mGapBetweenCircleAndLine,
-                            mCx,
-                            getMeasuredHeight() / 2 - mRadius + mCircleStrokeWidth / 2 + mGapBetweenCircleAndLine +
-                                    mLongerLineLength, mHighlightLinePaint);
-                } else {
-                    canvas.drawLine(mCx, getMeasuredHeight() / 2 - mRadius + mCircleStrokeWidth / 2 + mGapBetweenCircleAndLine,
-                            mCx,
-                            getMeasuredHeight() / 2 - mRadius + mCircleStrokeWidth / 2 + mGapBetweenCircleAndLine +
-                                    mLongerLineLength, mLinePaint);
-                }
-            } else {
-                if (360 / 120 * i <= Math.toDegrees(mCurrentRadian)) {
-                    canvas.drawLine(mCx, getMeasuredHeight() / 2 - mRadius + mCircleStrokeWidth / 2 + mGapBetweenCircleAndLine,
-                            mCx,
-                            getMeasuredHeight() / 2 - mRadius + mCircleStrokeWidth / 2 + mGapBetweenCircleAndLine + mLineLength,
-                            mHighlightLinePaint);
-                } else {
-                    canvas.drawLine(mCx, getMeasuredHeight() / 2 - mRadius + mCircleStrokeWidth / 2 + mGapBetweenCircleAndLine,
-                            mCx,
-                            getMeasuredHeight() / 2 - mRadius + mCircleStrokeWidth / 2 + mGapBetweenCircleAndLine + mLineLength,
-                            mLinePaint);
-                }
-            }
-            canvas.restore();
-        }
-        canvas.restore();
-        // Number it is rubbish code
-        float textLength = mNumberPaint.measureText("15");
-        canvas.drawText("60", mCx, getMeasuredHeight() / 2 - mRadius + mCircleStrokeWidth / 2 + mGapBetweenCircleAndLine +
-                mLongerLineLength + mGapBetweenNumberAndLine + getFontHeight(mNumberPaint), mNumberPaint);
-        canvas.drawText("15", mCx + mRadius - mCircleStrokeWidth / 2 - mGapBetweenCircleAndLine - mLongerLineLength -
-                textLength / 2
-                - mGapBetweenNumberAndLine, mCy + getFontHeight(mNumberPaint) / 2, mNumberPaint);
-        canvas.drawText("30", mCx, getMeasuredHeight() / 2 + mRadius - mCircleStrokeWidth / 2 - mGapBetweenCircleAndLine -
-                mLongerLineLength - mGapBetweenNumberAndLine, mNumberPaint);
-        canvas.drawText("45", getMeasuredHeight() / 2 - mRadius + mCircleStrokeWidth / 2 + mGapBetweenCircleAndLine +
-                        mLongerLineLength + mGapBetweenNumberAndLine + textLength / 2, mCy + getFontHeight(mNumberPaint) / 2,
-                mNumberPaint);
+        int ops = 0;
+        // The unhighlighted dial is static, with a cache only the highlighted ticks are drawn on top of it
+        boolean displayList = mRenderBackend == RENDER_BACKEND_DISPLAY_LIST;
+        if (displayList && (!canvas.isHardwareAccelerated() || Build.VERSION.SDK_INT >= Build.VERSION_CODES.M)) {
+            ensureDialPicture();
+            canvas.drawPicture(mDialPicture);
+            ops += 1 + drawTicks(canvas, 0, mTickGeometry.getHighlightedCount(mCurrentRadian), mHighlightLinePaint);
+        } else if (mDialCacheEnabled || displayList) {
+            // Hardware canvases only play pictures from API 23, use the bitmap before that
+            ensureDialCache();
+            canvas.drawBitmap(mDialCache, 0, 0, null);
+            ops += 1 + drawTicks(canvas, 0, mTickGeometry.getHighlightedCount(mCurrentRadian), mHighlightLinePaint);
+        } else {
+            int highlighted = mTickGeometry.getHighlightedCount(mCurrentRadian);
+            ops += drawTicks(canvas, 0, highlighted, mHighlightLinePaint);
+            ops += drawTicks(canvas, highlighted, mTickGeometry.getTickCount(), mLinePaint);
+            ops += drawNumbers(canvas);
+        }
+        if (mCurrentTurns > 0) {
+            ops += drawTurns(canvas);
+        }
         // Circle button
-        canvas.save();
-        canvas.rotate((float) Math.toDegrees(mCurrentRadian), mCx, mCy);
-        canvas.drawCircle(mCx, getMeasuredHeight() / 2 - mRadius + mCircleStrokeWidth / 2 + mGapBetweenCircleAndLine + mLineLength / 2, mCircleButtonRadius, mCircleButtonPaint);
-        canvas.restore();
+        float buttonRadius = mRadius - mCircleStrokeWidth / 2 - mGapBetweenCircleAndLine - mLineLength / 2;
+        canvas.drawCircle(mCx + buttonRadius * (float) Math.sin(mCurrentRadian),
+                mCy - buttonRadius * (float) Math.cos(mCurrentRadian), mCircleButtonRadius, mCircleButtonPaint);
         // TimerNumber
-        canvas.save();
-        int hour = mCurrentTime / 3600;
-        int minute = (mCurrentTime - hour * 3600) / 60;
-        String timerText = (hour < 10 ? "0" + hour : hour) + ":" + (minute < 10 ? "0" + minute : minute);
-        canvas.drawText(timerText, mCx, mCy + getFontHeight(mTimerNumberPaint) / 2, mTimerNumberPaint);
-        canvas.restore();
+        int length = TimeFormatter.format(mCurrentMillis, mTimeFormat, mTimerText);
+        if (mDigitCache == DIGIT_CACHE_NONE) {
+            canvas.drawText(mTimerText, 0, length, mCx, mCy + mTimerNumberFontHeight / 2, mTimerNumberPaint);
+            ops++;
+        } else {
+            ops += mDigitRenderer.draw(canvas, mTimerText, length, mCx, mCy + mTimerNumberFontHeight / 2,
+                    mTimerNumberPaint);
+        }
         // Timer Text
-        canvas.save();
-        canvas.drawText(mHintText, mCx, mCy + getFontHeight(mTimerNumberPaint) / 2 + mGapBetweenTimerNumberAndText + getFontHeight
-                (mTimerTextPaint) / 2, mTimerTextPaint);
-        canvas.restore();
-        super.onDraw(canvas);
+        canvas.drawText(mHintText, mCx, mCy + mTimerNumberFontHeight / 2 + mGapBetweenTimerNumberAndText +
+                mTimerTextFontHeight / 2, mTimerTextPaint);
+        return ops + 2;
+    }
+
+    /**
+     * Draw the whole turns before the shown one as segments of the outer ring, as the full ring for one turn or more
+     * turns than fit
+     *
+     * @return number of canvas calls issued
+     */
+    private int drawTurns(Canvas canvas) {
+        if (mCurrentTurns == 1 || mCurrentTurns > MAX_TURN_SEGMENTS) {
+            canvas.drawCircle(mCx, mCy, mRadius, mCirclePaint);
+            return 1;
+        }
+        float sweep = 360f / mCurrentTurns;
+        for (int i = 0; i < mCurrentTurns; i++) {
+            canvas.drawArc(mTurnBounds, -90 + i * sweep + TURN_SEGMENT_GAP / 2, sweep - TURN_SEGMENT_GAP, false,
+                    mCirclePaint);
+        }
+        return mCurrentTurns;
+    }
+
+    private void drawContentMeasured(Canvas canvas) {
+        boolean trace = Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2;
+        if (trace) {
+            Trace.beginSection("CircleTimerView#onDraw");
+        }
+        long start = System.nanoTime();
+        int ops = drawContent(canvas);
+        mTimerMetrics.onFrameDrawn(System.nanoTime() - start, ops);
+        if (trace) {
+            Trace.endSection();
+        }
+        if (mTouchEventTime >= 0) {
+            mTimerMetrics.onTouchToFrame(SystemClock.uptimeMillis() - mTouchEventTime);
+            mTouchEventTime = -1;
+        }
+    }
+
+    protected void invalidateChanged() {
+        invalidateChanged(TimerMetrics.INVALIDATE_STATE);
+    }
+
+    /**
+     * Compare the current state with the last drawn frame and invalidate only the area that looks different.
+     * Nothing is invalidated when the frame would look the same, e.g. on a tick that does not change the displayed
+     * text, the highlighted ticks or the circle button position.
+     *
+     * @param reason one of the {@link TimerMetrics} INVALIDATE constants
+     */
+    protected void invalidateChanged(int reason) {
+        if (!mDrawn) {
+            if (mTimerMetrics != null) {
+                mTimerMetrics.onInvalidate(reason, false);
+            }
+            invalidate();
+            return;
+        }
+        mDirtyEmpty = true;
+        // Circle button, old and new position
+        if (mCurrentRadian != mDrawnRadian) {
+            unionCircleButton(mDrawnRadian);
+            unionCircleButton(mCurrentRadian);
+        }
+        // Outer ring, only when the whole turns changed
+        if (mCurrentTurns != mDrawnTurns) {
+            float r = mRadius + mCircleStrokeWidth / 2 + 1;
+            unionDirty(mCx - r, mCy - r, mCx + r, mCy + r);
+        }
+        // Ticks whose highlight changed
+        int highlighted = mTickGeometry.getHighlightedCount(mCurrentRadian);
+        if (highlighted != mDrawnHighlightCount && mTickGeometry.getBounds(Math.min(highlighted, mDrawnHighlightCount),
+                Math.max(highlighted, mDrawnHighlightCount), mBounds)) {
+            float pad = mLineWidth / 2 + 1;
+            unionDirty(mBounds[0] - pad, mBounds[1] - pad, mBounds[2] + pad, mBounds[3] + pad);
+        }
+        // Timer number and hint text, both are centered in the dial
+        if (TimeFormatter.displayedValue(mCurrentMillis, mTimeFormat) != mDrawnTextValue
+                || !mHintText.equals(mDrawnHintText)) {
+            float halfWidth = mRadius - mCircleStrokeWidth / 2 - mGapBetweenCircleAndLine - mLongerLineLength;
+            unionDirty(mCx - halfWidth, mCy - mTimerNumberFontHeight,
+                    mCx + halfWidth, mCy + mTimerNumberFontHeight / 2 + mGapBetweenTimerNumberAndText +
+                            mTimerTextFontHeight / 2 + mTimerTextPaint.getTextSize());
+        }
+        if (mTimerMetrics != null) {
+            mTimerMetrics.onInvalidate(reason, mDirtyEmpty);
+        }
+        if (!mDirtyEmpty) {
+            invalidate((int) Math.floor(mDirtyBounds[0]), (int) Math.floor(mDirtyBounds[1]),
+                    (int) Math.ceil(mDirtyBounds[2]), (int) Math.ceil(mDirtyBounds[3]));
+        }
+    }
+
+    private void unionCircleButton(float radian) {
+        float buttonRadius = mRadius - mCircleStrokeWidth / 2 - mGapBetweenCircleAndLine - mLineLength / 2;
+        float x = mCx + buttonRadius * (float) Math.sin(radian);
+        float y = mCy - buttonRadius * (float) Math.cos(radian);
+        float r = mCircleButtonRadius + 1;
+        unionDirty(x - r, y - r, x + r, y + r);
+    }
+
+    private void unionDirty(float left, float top, float right, float bottom) {
+        if (mDirtyEmpty) {
+            mDirtyBounds[0] = left;
+            mDirtyBounds[1] = top;
+            mDirtyBounds[2] = right;
+            mDirtyBounds[3] = bottom;
+            mDirtyEmpty = false;
+        } else {
+            mDirtyBounds[0] = Math.min(mDirtyBounds[0], left);
+            mDirtyBounds[1] = Math.min(mDirtyBounds[1], top);
+            mDirtyBounds[2] = Math.max(mDirtyBounds[2], right);
+            mDirtyBounds[3] = Math.max(mDirtyBounds[3], bottom);
+        }
+    }
+
+    /**
+     * Draw the ticks [from, to) with a single batched call
+     */
+    private int drawTicks(Canvas canvas, int from, int to, Paint paint) {
+        if (to > from) {
+            canvas.drawLines(mTickGeometry.getPoints(), from * 4, (to - from) * 4, paint);
+            return 1;
+        }
+        return 0;
+    }
+
+    private int drawNumbers(Canvas canvas) {
+        for (int i = 0; i < mLabelX.length; i++) {
+            canvas.drawText(mLabels[i], mLabelX[i], mLabelY[i], mNumberPaint);
+        }
+        return mLabelX.length;
+    }
+
+    /**
+     * Place the labels evenly around the dial, clockwise from 12 o'clock, each one just inside the long ticks
+     */
+    protected void updateLabelLayout() {
+        int count = mLabels.length;
+        if (mLabelX.length != count) {
+            mLabelX = new float[count];
+            mLabelY = new float[count];
+        }
+        float inset = mRadius - mCircleStrokeWidth / 2 - mGapBetweenCircleAndLine - mLongerLineLength
+                - mGapBetweenNumberAndLine;
+        for (int i = 0; i < count; i++) {
+            double angle = 2 * Math.PI * i / count;
+            float sin = (float) Math.sin(angle);
+            float cos = (float) Math.cos(angle);
+            // Move the center in until the text box touches the inset circle
+            float halfWidth = mNumberPaint.measureText(mLabels[i]) / 2;
+            float distance = inset - Math.abs(sin) * halfWidth - Math.abs(cos) * mNumberFontHeight / 2;
+            mLabelX[i] = mCx + distance * sin;
+            mLabelY[i] = mCy - distance * cos + mNumberFontHeight / 2;
+        }
+    }
+
+    /**
+     * @return four labels for the quarters of the dial in the largest whole unit, 60 15 30 45 for one hour
+     */
+    private static String[] createDefaultLabels(long turnMillis) {
+        long unit;
+        if (turnMillis % (4 * 3600000L) == 0) {
+            unit = 3600000;
+        } else if (turnMillis % (4 * 60000L) == 0) {
+            unit = 60000;
+        } else {
+            unit = 1000;
+        }
+        String[] labels = new String[4];
+        for (int i = 0; i < labels.length; i++) {
+            long millis = i == 0 ? turnMillis : turnMillis * i / labels.length;
+            labels[i] = TimeFormatter.formatLabel(millis * 10 / unit);
+        }
+        return labels;
+    }
+
+    /**
+     * Draw the static part of the dial (unhighlighted ticks and numbers) into the cache bitmap if it is stale. The
+     * bitmap is shared with the other views of the style that have the same size, ticks and labels
+     */
+    private void ensureDialCache() {
+        int width = Math.max(getMeasuredWidth(), 1);
+        int height = Math.max(getMeasuredHeight(), 1);
+        if (mDialCache != null && (mDialCache.getWidth() != width || mDialCache.getHeight() != height)) {
+            mDialCacheValid = false;
+        }
+        if (!mDialCacheValid) {
+            mDialCache = mStyle.findDialLayer(width, height, mTickCount, mLabels);
+            if (mDialCache == null) {
+                // Drawn once, a shared layer is never drawn into again
+                mDialCache = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+                Canvas cacheCanvas = new Canvas(mDialCache);
+                drawTicks(cacheCanvas, 0, mTickGeometry.getTickCount(), mLinePaint);
+                drawNumbers(cacheCanvas);
+                mStyle.putDialLayer(width, height, mTickCount, mLabels, mDialCache);
+            }
+            mDialCacheValid = true;
+        }
+    }
+
+    /**
+     * Record the static part of the dial into the display list if it is stale
+     */
+    private void ensureDialPicture() {
+        if (mDialPicture == null) {
+            mDialPicture = new Picture();
+            mDialPictureValid = false;
+        }
+        if (!mDialPictureValid) {
+            Canvas recordingCanvas = mDialPicture.beginRecording(Math.max(getMeasuredWidth(), 1),
+                    Math.max(getMeasuredHeight(), 1));
+            drawTicks(recordingCanvas, 0, mTickGeometry.getTickCount(), mLinePaint);
+            drawNumbers(recordingCanvas);
+            mDialPicture.endRecording();
+            mDialPictureValid = true;
+        }
+    }
+
+    private void releaseDialCache() {
+        // Other views may still draw the shared layer, it is freed once none of them refers to it
+        mDialCache = null;
+        mDialCacheValid = false;
+        mDialPicture = null;
+        mDialPictureValid = false;
+    }
+
+    /**
+     * Mark the cached dial as stale, it is redrawn on the next frame. Call it after changing any size or color
+     * the static dial depends on.
+     */
+    protected void invalidateDialCache() {
+        mDialCacheValid = false;
+        mDialPictureValid = false;
+        invalidate();
+    }
+
+    private void applyRenderBackend() {
+        switch (mRenderBackend) {
+            case RENDER_BACKEND_SOFTWARE:
+                setLayerType(LAYER_TYPE_SOFTWARE, null);
+                break;
+            case RENDER_BACKEND_HARDWARE_LAYER:
+                setLayerType(LAYER_TYPE_HARDWARE, null);
+                break;
+            default:
+                setLayerType(LAYER_TYPE_NONE, null);
+                break;
+        }
+    }
+
+    /**
+     * Measure the text once, call it after changing a text size
+     */
+    protected void updateTextMetrics() {
+        mNumberFontHeight = getFontHeight(mNumberPaint);
+        mTimerNumberFontHeight = getFontHeight(mTimerNumberPaint);
+        mTimerTextFontHeight = getFontHeight(mTimerTextPaint);
     }
 
     private float getFontHeight(Paint paint) {
         // FontMetrics sF = paint.getFontMetrics();
         // return sF.descent - sF.ascent;
-        Rect rect = new Rect();
-        paint.getTextBounds("1", 0, 1, rect);
-        return rect.height();
+        paint.getTextBounds("1", 0, 1, mTextBounds);
+        return mTextBounds.height();
     }
 
     @Override
@@ -314,60 +726,151 @@ public class CircleTimerView extends View {
                 // If the point in the circle button
                 if (isEnabled()) {
                     mIsInCircleButton = true;
-                    mPreRadian = getRadian(event.getX(), event.getY());
-                    Log.d(TAG, "In circle button");
+                    mAngleTracker.begin(event.getX() - mCx, event.getY() - mCy);
+                    mTouchTurns = (int) (mCurrentMillis / mTurnMillis);
+                    mTouchRadian = (mCurrentMillis - mTouchTurns * mTurnMillis) * 2 * Math.PI / mTurnMillis;
+                    mReportedSetValue = mCurrentTime;
+                    if (DEBUG) Log.d(TAG, "In circle button");
                 }
                 break;
             case MotionEvent.ACTION_MOVE:
                 if (mIsInCircleButton && isEnabled()) {
-                    float temp = getRadian(event.getX(), event.getY());
-                    if (mPreRadian > Math.toRadians(270) && temp < Math.toRadians(90)) {
-                        mPreRadian -= 2 * Math.PI;
-                    } else if (mPreRadian < Math.toRadians(90) && temp > Math.toRadians(270)) {
-                        mPreRadian = (float) (temp + (temp - 2 * Math.PI) - mPreRadian);
+                    // Batched samples since the last event first, then the current position
+                    int historySize = event.getHistorySize();
+                    for (int h = 0; h < historySize; h++) {
+                        trackRadian(event.getHistoricalX(h), event.getHistoricalY(h));
+                    }
+                    trackRadian(event.getX(), event.getY());
+                    long millis = CountdownEngine.millisOf(mTouchTurns, mTouchRadian, mTurnMillis);
+                    if (hasDetents()) {
+                        millis = snapToDetent(millis);
+                        if (millis == mCurrentMillis) {
+                            // Between two detents, nothing to report or draw
+                            break;
+                        }
+                        if (mDetentHapticsEnabled) {
+                            performHapticFeedback(Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP
+                                    ? HapticFeedbackConstants.CLOCK_TICK : HapticFeedbackConstants.KEYBOARD_TAP);
+                        }
+                    }
+                    // Without detents the button follows the finger and the time snaps to the value step
+                    setDialMillis(millis);
+                    mCurrentTime = hasDetents() ? (int) (millis / 1000) : quantize((int) (millis / 1000));
+                    mCurrentMillis = mCurrentTime * 1000L;
+                    setRemainingMillis(mCurrentMillis);
+                    if (mTimerMetrics != null && mTouchEventTime < 0) {
+                        mTouchEventTime = event.getEventTime();
                     }
-                    mCurrentRadian += (temp - mPreRadian);
-                    mPreRadian = temp;
-                    if (mCurrentRadian < 0) {
-                        mCurrentRadian = 0;
+                    if (!mTouchCoalescingEnabled) {
+                        flushSetValue();
+                    } else if (!mSetValuePending) {
+                        // Deliver the latest value once on the next frame
+                        mSetValuePending = true;
+                        if (mTouchScheduler == null) {
+                            mTouchScheduler = FrameScheduler.create(mTouchFrame);
+                        }
+                        mTouchScheduler.schedule(0);
                     }
-                    if (mCircleTimerListener != null)
-                        mCircleTimerListener.onTimerSetValueChange(getCurrentTime());
-                    mCurrentTime = (int) (60 / (2 * Math.PI) * mCurrentRadian * 60);
-                    invalidate();
                 }
                 break;
             case MotionEvent.ACTION_UP:
                 if (mIsInCircleButton && isEnabled()) {
                     mIsInCircleButton = false;
-                    if (mCircleTimerListener != null)
-                        mCircleTimerListener.onTimerSetValueChanged(getCurrentTime());
+                    // The button followed the finger, put it back on the time it snapped to
+                    setDialMillis(mCurrentMillis);
+                    if (mSetValuePending) {
+                        mTouchScheduler.cancel();
+                        flushSetValue();
+                    } else {
+                        invalidateChanged(TimerMetrics.INVALIDATE_TOUCH);
+                    }
+                    persist();
+                    mEventBus.onTimerSetValueChanged(getCurrentTime());
+                    updateAccessibility(true);
                 }
                 break;
         }
         return true;
     }
 
-    // Use tri to cal radian
-    private float getRadian(float x, float y) {
-        float alpha = (float) Math.atan((x - mCx) / (mCy - y));
-        // Quadrant
-        if (x > mCx && y > mCy) {
-            // 2
-            alpha += Math.PI;
-        } else if (x < mCx && y > mCy) {
-            // 3
-            alpha += Math.PI;
-        } else if (x < mCx && y < mCy) {
-            // 4
-            alpha = (float) (2 * Math.PI + alpha);
+    /**
+     * Report the dragged value if it changed since the last report and redraw
+     */
+    protected void flushSetValue() {
+        mSetValuePending = false;
+        if (mCurrentTime != mReportedSetValue) {
+            mReportedSetValue = mCurrentTime;
+            mEventBus.onTimerSetValueChange(mCurrentTime);
+        }
+        invalidateChanged(TimerMetrics.INVALIDATE_TOUCH);
+    }
+
+    /**
+     * Round the dragged time down to the value step
+     */
+    private int quantize(int time) {
+        return mValueStep > 1 ? time / mValueStep * mValueStep : time;
+    }
+
+    /**
+     * Add the angle moved since the previous sample to the finger position, which cannot go below 0. The angle is
+     * kept within a turn, the whole turns are counted apart
+     */
+    private void trackRadian(float x, float y) {
+        mTouchRadian += mAngleTracker.track(x - mCx, y - mCy);
+        if (mTouchRadian >= 2 * Math.PI) {
+            mTouchRadian -= 2 * Math.PI;
+            mTouchTurns++;
+        } else if (mTouchRadian < 0) {
+            if (mTouchTurns > 0) {
+                mTouchRadian += 2 * Math.PI;
+                mTouchTurns--;
+            } else {
+                mTouchRadian = 0;
+            }
+        }
+    }
+
+    /**
+     * Show the time on the dial as whole turns and the angle within the shown turn
+     */
+    private void setDialMillis(long millis) {
+        mCurrentTurns = CountdownEngine.turnsOf(millis, mTurnMillis);
+        mCurrentRadian = CountdownEngine.turnRadianOf(millis, mTurnMillis);
+    }
+
+    /**
+     * Build the detent table from the detents, it depends on the dial range. A detent step needs no table
+     */
+    private void updateDetentTable() {
+        mDetentTable = mDetents != null && mDetents.length > 0 ? new DetentTable(mDetents, mTurnMillis) : null;
+    }
+
+    private boolean hasDetents() {
+        return mDetentTable != null || mDetentStep > 0;
+    }
+
+    /**
+     * Snap the dragged time to the nearest detent. Detents every step are computed, so they go on over any number of
+     * turns, ties go to the smaller detent like in the table
+     *
+     * @param millis dragged time, not negative
+     * @return the nearest detent, or the time itself without detents
+     */
+    private long snapToDetent(long millis) {
+        if (mDetentTable != null) {
+            return mDetentTable.getMillis(mDetentTable.indexOf(millis));
         }
-        return alpha;
+        if (mDetentStep > 0) {
+            long stepMillis = mDetentStep * 1000L;
+            return (millis + (stepMillis - 1) / 2) / stepMillis * stepMillis;
+        }
+        return millis;
     }
 
     @Override
     protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
-        Log.d(TAG, "onMeasure");
+        if (DEBUG) Log.d(TAG, "onMeasure");
         super.onMeasure(widthMeasureSpec, heightMeasureSpec);
         // Ensure width = height
         int height = MeasureSpec.getSize(heightMeasureSpec);
@@ -377,119 +880,1159 @@ public class CircleTimerView extends View {
         // Radius
         if (mLineLength / 2 + mGapBetweenCircleAndLine + mCircleStrokeWidth >= mCircleButtonRadius) {
             this.mRadius = width / 2 - mCircleStrokeWidth / 2;
-            Log.d(TAG, "No exceed");
+            if (DEBUG) Log.d(TAG, "No exceed");
         } else {
             this.mRadius = width / 2 - (mCircleButtonRadius - mGapBetweenCircleAndLine - mLineLength / 2 -
                     mCircleStrokeWidth / 2);
-            Log.d(TAG, "Exceed");
+            if (DEBUG) Log.d(TAG, "Exceed");
         }
+        mTickGeometry.update(mTickCount, mCx, mCy, mRadius - mCircleStrokeWidth / 2 - mGapBetweenCircleAndLine,
+                mLineLength, mLongerLineLength);
+        mTurnBounds.set(mCx - mRadius, mCy - mRadius, mCx + mRadius, mCy + mRadius);
+        updateLabelLayout();
         setMeasuredDimension(width, height);
     }
 
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        mDialCacheValid = false;
+        mDialPictureValid = false;
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        mAttached = true;
+        if (mPowerSaveEnabled) {
+            addVisibilityListeners();
+        }
+        mVisible = isVisibleToUser();
+        if (mCountdown.isRunning()) {
+            // Catch up with the deadline right away
+            scheduleTick(mTickEngine.now());
+        }
+        updateSweep();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        mAttached = false;
+        mVisible = false;
+        removeVisibilityListeners();
+        // The countdown keeps its deadline, a detached view only wakes up once to stop it and report the stop
+        if (mCountdown.isRunning()) {
+            scheduleTick(mCountdown.getDeadline());
+        } else {
+            mTickEngine.stop(mTickCallback);
+        }
+        cancelTouch();
+        updateSweep();
+        releaseDialCache();
+        mDigitRenderer.release();
+    }
+
+    @Override
+    protected void onVisibilityChanged(View changedView, int visibility) {
+        super.onVisibilityChanged(changedView, visibility);
+        updateVisibility();
+    }
+
+    @Override
+    protected void onWindowVisibilityChanged(int visibility) {
+        super.onWindowVisibilityChanged(visibility);
+        updateVisibility();
+    }
+
     @Override
     protected Parcelable onSaveInstanceState() {
-        Log.d(TAG, "onSaveInstanceState");
+        if (DEBUG) Log.d(TAG, "onSaveInstanceState");
         Bundle bundle = new Bundle();
         bundle.putParcelable(INSTANCE_STATUS, super.onSaveInstanceState());
-        bundle.putFloat(STATUS_RADIAN, mCurrentRadian);
+        bundle.putByteArray(STATUS_RECORD, TimerRecord.write(mCountdown, System.currentTimeMillis(), getBootCount()));
+        bundle.putString(STATUS_HINT_TEXT, mHintText);
         return bundle;
     }
 
     @Override
     protected void onRestoreInstanceState(Parcelable state) {
-        Log.d(TAG, "onRestoreInstanceState");
+        if (DEBUG) Log.d(TAG, "onRestoreInstanceState");
         if (state instanceof Bundle) {
             Bundle bundle = (Bundle) state;
             super.onRestoreInstanceState(bundle.getParcelable(INSTANCE_STATUS));
-            mCurrentRadian = bundle.getFloat(STATUS_RADIAN);
-            mCurrentTime = (int) (60 / (2 * Math.PI) * mCurrentRadian * 60);
+            String hintText = bundle.getString(STATUS_HINT_TEXT);
+            if (hintText != null) {
+                mHintText = hintText;
+            }
+            restoreRecord(bundle.getByteArray(STATUS_RECORD));
             return;
         }
         super.onRestoreInstanceState(state);
     }
 
     /**
-     * start timer
+     * Restore the countdown from a {@link TimerRecord}, a running countdown continues and catches up right away
+     *
+     * @return false when the record is not valid
      */
-    public void startTimer() {
-        Log.d(TAG, "startTimer");
-        if (mCurrentRadian > 0 && !mStarted) {
-            timerTask = new TimerTask() {
-                @Override
-                public void run() {
-                    Log.d(TAG, "TimerTask");
-                    handler.obtainMessage().sendToTarget();
-                }
-            };
-            timer.schedule(timerTask, 1000, 1000);
-            mStarted = true;
-            if (this.mCircleTimerListener != null) {
-                this.mCircleTimerListener.onTimerStart(mCurrentTime);
-            }
+    protected boolean restoreRecord(byte[] record) {
+        if (!TimerRecord.read(record, mCountdown, System.currentTimeMillis(), getBootCount())) {
+            return false;
         }
+        showCountdown();
+        return true;
     }
 
     /**
-     * pause timer
+     * Take the displayed time from the countdown and follow it, without reporting anything to the listeners
      */
-    public void pauseTimer() {
-        if (mStarted) {
-            timerTask.cancel();
-            mStarted = false;
-            if (this.mCircleTimerListener != null) {
-                this.mCircleTimerListener.onTimerPause(mCurrentTime);
-            }
+    private void showCountdown() {
+        long now = mTickEngine.now();
+        long remaining = mCountdown.getRemainingMillis(now);
+        mCurrentTime = CountdownEngine.secondsOf(remaining);
+        mCurrentMillis = remaining;
+        setDialMillis(remaining);
+        if (mCountdown.isRunning()) {
+            // A countdown that expired meanwhile is stopped by this tick
+            scheduleTick(remaining > 0 ? nextTickTime(now) : now);
+        } else {
+            mTickEngine.stop(mTickCallback);
         }
+        updateSweep();
+        // A bound or restored view is not announced, it just speaks its new value when asked
+        syncAccessibility();
+        invalidateChanged();
     }
 
     /**
-     * set current time in seconds
-     *
-     * @param time
+     * Drop a drag in progress without reporting it
      */
-    public void setCurrentTime(int time) {
-        if (time >= 0) {
-            mCurrentTime = time;
-            if (mCircleTimerListener != null) {
-                mCircleTimerListener.onTimerSetValueChanged(time);
-            }
-            this.mCurrentRadian = (float) (time / 60.0f * 2 * Math.PI / 60);
-            invalidate();
+    private void cancelTouch() {
+        mIsInCircleButton = false;
+        if (mSetValuePending) {
+            mTouchScheduler.cancel();
+            mSetValuePending = false;
         }
     }
 
     /**
-     * set the hint text, default is 时间设置
-     *
-     * @param id int id value
+     * @return the number of boots of the device, which tells a restored record whether the engine clock restarted
      */
-    public void setHintText(int id) {
-        if (id > 0) {
-            setHintText(getResources().getString(id));
+    private int getBootCount() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+            return Settings.Global.getInt(getContext().getContentResolver(), Settings.Global.BOOT_COUNT,
+                    TimerRecord.UNKNOWN_BOOT_COUNT);
         }
+        return TimerRecord.UNKNOWN_BOOT_COUNT;
     }
 
-
     /**
-     * set the hint text, default is 时间设置
-     *
-     * @param value String value
+     * Write the countdown under the persistence key, called on every state change but not on every tick
      */
-    public void setHintText(String value) {
-        if (value != null) {
-            mHintText = value;
+    protected void persist() {
+        if (mPersistenceKey == null) {
+            return;
         }
-        invalidate();
+        byte[] record = TimerRecord.write(mCountdown, System.currentTimeMillis(), getBootCount());
+        getContext().getSharedPreferences(PREFERENCES_NAME, Context.MODE_PRIVATE).edit()
+                .putString(mPersistenceKey, Base64.encodeToString(record, Base64.NO_WRAP))
+                .apply();
     }
 
     /**
-     * set timer listener
-     *
-     * @param mCircleTimerListener
+     * start timer
      */
-    public void setCircleTimerListener(CircleTimerListener mCircleTimerListener) {
-        this.mCircleTimerListener = mCircleTimerListener;
-    }
+    public void startTimer() {
+        if (DEBUG) Log.d(TAG, "startTimer");
+        if (mCurrentRadian > 0 && mCountdown.start()) {
+            scheduleTick(nextTickTime(mTickEngine.now()));
+            updateSweep();
+            persist();
+            mEventBus.onTimerStart(mCurrentTime);
+            updateAccessibility(true);
+        }
+    }
+
+    /**
+     * pause timer
+     */
+    public void pauseTimer() {
+        if (mCountdown.pause()) {
+            mTickEngine.stop(mTickCallback);
+            updateSweep();
+            persist();
+            mEventBus.onTimerPause(mCurrentTime);
+            updateAccessibility(true);
+        }
+    }
+
+    /**
+     * Recompute the displayed time from the deadline
+     *
+     * @return time of the next tick
+     */
+    protected long onTimerTick(long now) {
+        if (DEBUG) Log.d(TAG, "onTimerTick");
+        long remaining = mCountdown.getRemainingMillis(now);
+        if (remaining > 0 && mPowerSaveEnabled && !mVisible) {
+            // Nothing to draw, the next tick is the one that stops the timer
+            return mCountdown.getDeadline();
+        }
+        if (remaining > 0) {
+            int time = CountdownEngine.secondsOf(remaining);
+            mCurrentMillis = remaining;
+            setDialMillis(remaining);
+            if (time != mCurrentTime) {
+                mCurrentTime = time;
+                mEventBus.onTimerTimingValueChanged(mCurrentTime);
+                updateAccessibility(false);
+            }
+            invalidateChanged(TimerMetrics.INVALIDATE_TICK);
+            return nextTickTime(now);
+        }
+        setDialMillis(0);
+        mCurrentMillis = 0;
+        mCountdown.stop();
+        updateSweep();
+        persist();
+        if (mCurrentTime != 0) {
+            mCurrentTime = 0;
+            mEventBus.onTimerTimingValueChanged(mCurrentTime);
+        }
+        mEventBus.onTimerStop();
+        updateAccessibility(true);
+        invalidateChanged(TimerMetrics.INVALIDATE_TICK);
+        return TickEngine.STOP;
+    }
+
+    /**
+     * Start or stop the sweep frames, they only run while the timer is started and the view can be seen
+     */
+    protected void updateSweep() {
+        boolean run = mSweepEnabled && mCountdown.isRunning() && mAttached && isShown() && getWindowVisibility() == VISIBLE
+                && (!mPowerSaveEnabled || mVisible);
+        if (run) {
+            if (mSweepScheduler == null) {
+                mSweepScheduler = FrameScheduler.create(mSweepFrame);
+            }
+            mSweepScheduler.schedule(0);
+        } else if (mSweepScheduler != null) {
+            mSweepScheduler.cancel();
+        }
+    }
+
+    /**
+     * Interpolate the radian from the deadline and schedule the next frame within the frame rate
+     */
+    protected void onSweepFrame() {
+        if (!mCountdown.isRunning()) {
+            return;
+        }
+        long remaining = mCountdown.getRemainingMillis();
+        long delay;
+        if (mSweepFrameRate == SWEEP_FRAME_RATE_ON_TICK_CHANGE) {
+            float radian = CountdownEngine.turnRadianOf(remaining, mTurnMillis);
+            int turns = CountdownEngine.turnsOf(remaining, mTurnMillis);
+            if (turns != mCurrentTurns
+                    || mTickGeometry.getHighlightedCount(radian) != mTickGeometry.getHighlightedCount(mCurrentRadian)) {
+                mCurrentTurns = turns;
+                mCurrentRadian = radian;
+                invalidateChanged(TimerMetrics.INVALIDATE_SWEEP);
+            }
+            // Wake up again when the remaining time crosses the next tick
+            long tickMillis = Math.max(1, mTurnMillis / mTickCount);
+            delay = remaining % tickMillis + 1;
+        } else {
+            setDialMillis(remaining);
+            mCurrentMillis = remaining;
+            invalidateChanged(TimerMetrics.INVALIDATE_SWEEP);
+            delay = 1000 / mSweepFrameRate;
+        }
+        if (remaining > 0) {
+            mSweepScheduler.schedule(delay > FrameScheduler.FRAME_DELAY ? delay : 0);
+        }
+    }
+
+    @Override
+    public void onInitializeAccessibilityEvent(AccessibilityEvent event) {
+        super.onInitializeAccessibilityEvent(event);
+        event.setClassName(ACCESSIBILITY_CLASS_NAME);
+    }
+
+    @Override
+    public void onInitializeAccessibilityNodeInfo(AccessibilityNodeInfo info) {
+        super.onInitializeAccessibilityNodeInfo(info);
+        // Announced as an adjustable slider over the time range of the dial
+        info.setClassName(ACCESSIBILITY_CLASS_NAME);
+        info.setText(getAccessibilityText());
+        int max = Math.max(getDialRange(), mCurrentTime);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
+            info.setRangeInfo(AccessibilityNodeInfo.RangeInfo.obtain(AccessibilityNodeInfo.RangeInfo.RANGE_TYPE_INT,
+                    0, max, mCurrentTime));
+        }
+        if (isEnabled()) {
+            if (mCurrentTime < max) {
+                info.addAction(AccessibilityNodeInfo.ACTION_SCROLL_FORWARD);
+            }
+            if (mCurrentTime > 0) {
+                info.addAction(AccessibilityNodeInfo.ACTION_SCROLL_BACKWARD);
+            }
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+                info.addAction(AccessibilityNodeInfo.AccessibilityAction.ACTION_SET_PROGRESS);
+            }
+        }
+    }
+
+    @Override
+    public boolean performAccessibilityAction(int action, Bundle arguments) {
+        if (isEnabled()) {
+            // Detents every step are stepped through like a value step
+            int step = mDetentTable == null && mDetentStep > 0 ? mDetentStep
+                    : mValueStep > 1 ? mValueStep : DEFAULT_ACCESSIBILITY_STEP;
+            int max = Math.max(getDialRange(), mCurrentTime);
+            if (mDetentTable != null && (action == AccessibilityNodeInfo.ACTION_SCROLL_FORWARD
+                    || action == AccessibilityNodeInfo.ACTION_SCROLL_BACKWARD)) {
+                // To the next or the previous detent
+                int index = action == AccessibilityNodeInfo.ACTION_SCROLL_FORWARD
+                        ? mDetentTable.next(mCurrentTime * 1000L) : mDetentTable.previous(mCurrentTime * 1000L);
+                if (index >= 0) {
+                    setCurrentTime((int) (mDetentTable.getMillis(index) / 1000));
+                    return true;
+                }
+            } else if (action == AccessibilityNodeInfo.ACTION_SCROLL_FORWARD && mCurrentTime < max) {
+                // To the next whole step
+                setCurrentTime(Math.min(max, (mCurrentTime / step + 1) * step));
+                return true;
+            }
+            if (action == AccessibilityNodeInfo.ACTION_SCROLL_BACKWARD && mCurrentTime > 0) {
+                setCurrentTime((mCurrentTime - 1) / step * step);
+                return true;
+            }
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N && action == android.R.id.accessibilityActionSetProgress
+                    && arguments != null && arguments.containsKey(AccessibilityNodeInfo.ACTION_ARGUMENT_PROGRESS_VALUE)) {
+                float value = arguments.getFloat(AccessibilityNodeInfo.ACTION_ARGUMENT_PROGRESS_VALUE);
+                setCurrentTime((int) Math.max(0, Math.min(max, value)));
+                return true;
+            }
+        }
+        return super.performAccessibilityAction(action, arguments);
+    }
+
+    /**
+     * Announce the time when the state changed, or while running when it crossed an announcement interval. Every
+     * other tick only costs a few comparisons, and nothing at all while accessibility is off
+     *
+     * @param stateChanged true on a start, pause, stop or set
+     */
+    protected void updateAccessibility(boolean stateChanged) {
+        if (mAccessibilityManager == null || !mAccessibilityManager.isEnabled()) {
+            return;
+        }
+        boolean running = mCountdown.isRunning();
+        if (!stateChanged && (mAccessibilityInterval == 0 || getAnnouncedValue(running) == mAnnouncedValue)) {
+            return;
+        }
+        syncAccessibility();
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
+            // Spoken by the live region
+            sendAccessibilityEvent(AccessibilityEvent.TYPE_WINDOW_CONTENT_CHANGED);
+        } else if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            announceForAccessibility(getAccessibilityText());
+        }
+    }
+
+    /**
+     * Take the announced value from the state without announcing it, the text is rebuilt when it is asked for
+     */
+    private void syncAccessibility() {
+        mAnnouncedRunning = mCountdown.isRunning();
+        mAnnouncedValue = getAnnouncedValue(mAnnouncedRunning);
+        mAccessibilityText = null;
+    }
+
+    /**
+     * @return the current time, while running rounded up to the announcement interval
+     */
+    private int getAnnouncedValue(boolean running) {
+        int interval = mAccessibilityInterval;
+        if (running && interval > 1) {
+            return (int) ((mCurrentTime + interval - 1L) / interval * interval);
+        }
+        return mCurrentTime;
+    }
+
+    /**
+     * get the text accessibility services speak for the view, e.g. "5 minutes remaining". While the timer runs it
+     * follows the announcement interval
+     *
+     * @return
+     */
+    public CharSequence getAccessibilityText() {
+        if (mAnnouncedValue < 0) {
+            syncAccessibility();
+        }
+        if (mAccessibilityText == null) {
+            String time = describeTime(mAnnouncedValue);
+            mAccessibilityText = mAnnouncedRunning ? getResources().getString(R.string.circle_timer_running, time)
+                    : time;
+        }
+        return mAccessibilityText;
+    }
+
+    private String describeTime(int seconds) {
+        Resources resources = getResources();
+        int hours = seconds / 3600;
+        int minutes = seconds / 60 % 60;
+        seconds %= 60;
+        StringBuilder builder = new StringBuilder();
+        if (hours > 0) {
+            builder.append(resources.getQuantityString(R.plurals.circle_timer_hours, hours, hours));
+        }
+        if (minutes > 0) {
+            if (builder.length() > 0) {
+                builder.append(' ');
+            }
+            builder.append(resources.getQuantityString(R.plurals.circle_timer_minutes, minutes, minutes));
+        }
+        if (seconds > 0 || builder.length() == 0) {
+            if (builder.length() > 0) {
+                builder.append(' ');
+            }
+            builder.append(resources.getQuantityString(R.plurals.circle_timer_seconds, seconds, seconds));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Follow the visibility of the view, with power save a timer that is seen again catches up with one tick
+     */
+    protected void updateVisibility() {
+        boolean visible = isVisibleToUser();
+        if (visible != mVisible) {
+            mVisible = visible;
+            if (mPowerSaveEnabled && mAttached && mCountdown.isRunning()) {
+                scheduleTick(visible ? mTickEngine.now() : nextTickTime(mTickEngine.now()));
+            }
+        }
+        updateSweep();
+    }
+
+    /**
+     * @return whether any part of the view is on the screen
+     */
+    protected boolean isVisibleToUser() {
+        return mAttached && isShown() && getWindowVisibility() == VISIBLE && getGlobalVisibleRect(mVisibleRect);
+    }
+
+    /**
+     * Follow the scrolls and the layouts of the window, the visible area is only known once the view is laid out
+     */
+    private void addVisibilityListeners() {
+        if (mScrollChangedListener == null) {
+            mScrollChangedListener = new ViewTreeObserver.OnScrollChangedListener() {
+                @Override
+                public void onScrollChanged() {
+                    // Scrolled in or out of the screen
+                    updateVisibility();
+                }
+            };
+            mGlobalLayoutListener = new ViewTreeObserver.OnGlobalLayoutListener() {
+                @Override
+                public void onGlobalLayout() {
+                    // Laid out for the first time, resized or moved in or out of the screen
+                    updateVisibility();
+                }
+            };
+        }
+        ViewTreeObserver observer = getViewTreeObserver();
+        observer.addOnScrollChangedListener(mScrollChangedListener);
+        observer.addOnGlobalLayoutListener(mGlobalLayoutListener);
+    }
+
+    @SuppressWarnings("deprecation")
+    private void removeVisibilityListeners() {
+        if (mScrollChangedListener != null) {
+            ViewTreeObserver observer = getViewTreeObserver();
+            observer.removeOnScrollChangedListener(mScrollChangedListener);
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+                observer.removeOnGlobalLayoutListener(mGlobalLayoutListener);
+            } else {
+                observer.removeGlobalOnLayoutListener(mGlobalLayoutListener);
+            }
+        }
+    }
+
+    /**
+     * @return time of the next tick of the running countdown, only the deadline when power save hides the timer
+     */
+    private long nextTickTime(long now) {
+        if (mPowerSaveEnabled && !mVisible) {
+            return mCountdown.getDeadline();
+        }
+        return mCountdown.getNextChangeTime(now);
+    }
+
+    private void scheduleTick(long time) {
+        mTickEngine.start(mTickCallback, time);
+    }
+
+    private void setRemainingMillis(long remainingMillis) {
+        mCountdown.setRemainingMillis(remainingMillis);
+        if (mCountdown.isRunning()) {
+            scheduleTick(nextTickTime(mTickEngine.now()));
+        }
+    }
+
+    /**
+     * set the engine that delivers the timer ticks, a running timer continues on the new engine
+     *
+     * @param tickEngine tick engine
+     */
+    public void setTickEngine(TickEngine tickEngine) {
+        if (tickEngine != null && tickEngine != mTickEngine) {
+            if (mCountdown.isRunning() && mCountdown == mOwnCountdown) {
+                // The own countdown clock follows mTickEngine, so re-anchor the deadline on the new clock
+                mCountdown.pause();
+                mTickEngine.stop(mTickCallback);
+                mTickEngine = tickEngine;
+                long now = tickEngine.now();
+                // A countdown without time left is finished by the first tick
+                scheduleTick(mCountdown.start() ? nextTickTime(now) : now);
+            } else if (mCountdown.isRunning()) {
+                // A bound countdown keeps its own clock
+                mTickEngine.stop(mTickCallback);
+                mTickEngine = tickEngine;
+                scheduleTick(tickEngine.now());
+            } else {
+                mTickEngine = tickEngine;
+            }
+        }
+    }
+
+    /**
+     * set current time in seconds
+     *
+     * @param time
+     */
+    public void setCurrentTime(int time) {
+        if (time >= 0) {
+            setCurrentMillis(time * 1000L);
+        }
+    }
+
+    /**
+     * set current time in milliseconds, from less than a second to many days. Times longer than the dial range show
+     * the whole turns on the outer ring
+     *
+     * @param millis
+     */
+    public void setCurrentMillis(long millis) {
+        if (millis >= 0) {
+            mCurrentTime = CountdownEngine.secondsOf(millis);
+            setRemainingMillis(millis);
+            persist();
+            mCurrentMillis = millis;
+            setDialMillis(millis);
+            mEventBus.onTimerSetValueChanged(mCurrentTime);
+            updateAccessibility(true);
+            invalidateChanged();
+        }
+    }
+
+    /**
+     * set the hint text, default is 时间设置
+     *
+     * @param id int id value
+     */
+    public void setHintText(int id) {
+        if (id > 0) {
+            setHintText(getResources().getString(id));
+        }
+    }
+
+
+    /**
+     * set the hint text, default is 时间设置
+     *
+     * @param value String value
+     */
+    public void setHintText(String value) {
+        if (value != null) {
+            mHintText = value;
+        }
+        invalidateChanged();
+    }
+
+    /**
+     * set timer listener
+     *
+     * @param mCircleTimerListener
+     */
+    public void setCircleTimerListener(CircleTimerListener mCircleTimerListener) {
+        mEventBus.remove(this.mCircleTimerListener);
+        this.mCircleTimerListener = mCircleTimerListener;
+        mEventBus.add(mCircleTimerListener);
+    }
+
+    /**
+     * add a timer listener that is called on the main thread, next to the one set by
+     * {@link #setCircleTimerListener(CircleTimerListener)}
+     *
+     * @param listener
+     */
+    public void addCircleTimerListener(CircleTimerListener listener) {
+        mEventBus.add(listener);
+    }
+
+    /**
+     * add a timer listener that is called on the executor, it cannot delay the main thread. Value events it cannot
+     * keep up with are coalesced, see {@link TimerEventBus}
+     *
+     * @param listener
+     * @param executor
+     */
+    public void addCircleTimerListener(CircleTimerListener listener, Executor executor) {
+        mEventBus.add(listener, executor);
+    }
+
+    /**
+     * remove a timer listener
+     *
+     * @param listener
+     */
+    public void removeCircleTimerListener(CircleTimerListener listener) {
+        if (listener == mCircleTimerListener) {
+            mCircleTimerListener = null;
+        }
+        mEventBus.remove(listener);
+    }
+
+    /**
+     * get the bus that fans the timer events out to the listeners
+     *
+     * @return
+     */
+    public TimerEventBus getEventBus() {
+        return mEventBus;
+    }
+
+    /**
+     * set the number of ticks on the whole dial, default is 120
+     *
+     * @param tickCount number of ticks, every quarter of the dial gets a longer tick
+     */
+    public void setTickCount(int tickCount) {
+        if (tickCount > 0 && tickCount != mTickCount) {
+            mTickCount = tickCount;
+            mTickGeometry.update(mTickCount, mCx, mCy, mRadius - mCircleStrokeWidth / 2 - mGapBetweenCircleAndLine,
+                    mLineLength, mLongerLineLength);
+            invalidateDialCache();
+        }
+    }
+
+    /**
+     * get the number of ticks on the whole dial
+     *
+     * @return
+     */
+    public int getTickCount() {
+        return mTickCount;
+    }
+
+    /**
+     * set the time of one turn of the dial in seconds, default is 3600. With the default labels, the labels follow
+     * the range
+     *
+     * @param seconds range in seconds, e.g. 30 for a workout or 86400 for a day
+     */
+    public void setDialRange(int seconds) {
+        if (seconds > 0 && seconds * 1000L != mTurnMillis) {
+            mTurnMillis = seconds * 1000L;
+            if (!mCustomLabels) {
+                mLabels = createDefaultLabels(mTurnMillis);
+            }
+            setDialMillis(mCurrentMillis);
+            updateDetentTable();
+            updateLabelLayout();
+            invalidateDialCache();
+        }
+    }
+
+    /**
+     * get the time of one turn of the dial in seconds
+     *
+     * @return
+     */
+    public int getDialRange() {
+        return (int) (mTurnMillis / 1000);
+    }
+
+    /**
+     * set the labels of the dial, they are placed evenly clockwise from 12 o'clock
+     *
+     * @param labels labels, or null for the default quarter labels of the range
+     */
+    public void setLabels(String... labels) {
+        mCustomLabels = labels != null;
+        mLabels = labels != null ? labels.clone() : createDefaultLabels(mTurnMillis);
+        updateLabelLayout();
+        invalidateDialCache();
+    }
+
+    /**
+     * set the format of the timer text, one of the TIME_FORMAT constants, default is {@link #TIME_FORMAT_HOUR_MINUTE}.
+     * Tenths change between the ticks, they are only shown moving with {@link #setSweepEnabled(boolean)}
+     *
+     * @param timeFormat time format
+     */
+    public void setTimeFormat(int timeFormat) {
+        if (timeFormat < TIME_FORMAT_HOUR_MINUTE || timeFormat > TIME_FORMAT_MINUTE_SECOND_TENTHS) {
+            throw new IllegalArgumentException("Unknown time format " + timeFormat);
+        }
+        if (timeFormat != mTimeFormat) {
+            mTimeFormat = timeFormat;
+            invalidate();
+        }
+    }
+
+    /**
+     * get the format of the timer text
+     *
+     * @return
+     */
+    public int getTimeFormat() {
+        return mTimeFormat;
+    }
+
+    /**
+     * enable or disable power save. While the view is detached, hidden, scrolled off the screen or its window is not
+     * visible, the countdown then keeps its deadline but wakes up only once, to stop at the deadline. Nothing is
+     * drawn meanwhile, the view catches up with one redraw when it is seen again.
+     * <p>
+     * This changes what listeners receive: while the view is not seen,
+     * {@link CircleTimerListener#onTimerTimingValueChanged(int)} is not called. The stop is still reported at the
+     * deadline, and a view that is seen again reports its current value once. Leave power save off when a listener
+     * needs every second, e.g. to update a notification
+     *
+     * @param enabled true to save power
+     */
+    public void setPowerSaveEnabled(boolean enabled) {
+        if (enabled == mPowerSaveEnabled) {
+            return;
+        }
+        mPowerSaveEnabled = enabled;
+        if (mAttached) {
+            if (enabled) {
+                addVisibilityListeners();
+            } else {
+                removeVisibilityListeners();
+            }
+        }
+        mVisible = isVisibleToUser();
+        if (mCountdown.isRunning()) {
+            scheduleTick(mVisible || !enabled ? mTickEngine.now() : nextTickTime(mTickEngine.now()));
+        }
+        updateSweep();
+    }
+
+    /**
+     * whether power save is enabled
+     *
+     * @return
+     */
+    public boolean isPowerSaveEnabled() {
+        return mPowerSaveEnabled;
+    }
+
+    /**
+     * set how the timer number is drawn, one of the DIGIT_CACHE constants, default is {@link #DIGIT_CACHE_NONE}.
+     * With a digit cache the glyphs are shaped once and every digit gets the same width, so the number does not
+     * jitter; {@link #DIGIT_CACHE_BITMAPS} also renders them once and blits them on every frame
+     *
+     * @param digitCache digit cache
+     */
+    public void setDigitCache(int digitCache) {
+        if (digitCache < DIGIT_CACHE_NONE || digitCache > DIGIT_CACHE_BITMAPS) {
+            throw new IllegalArgumentException("Unknown digit cache " + digitCache);
+        }
+        if (digitCache != mDigitCache) {
+            mDigitCache = digitCache;
+            mDigitRenderer.setRasterized(digitCache == DIGIT_CACHE_BITMAPS);
+            invalidate();
+        }
+    }
+
+    /**
+     * get how the timer number is drawn
+     *
+     * @return
+     */
+    public int getDigitCache() {
+        return mDigitCache;
+    }
+
+    /**
+     * set how often a running timer is announced to accessibility services, default is 60. Starting, pausing,
+     * stopping and setting the timer are always announced
+     *
+     * @param seconds interval in seconds, 0 to only announce those state changes
+     */
+    public void setAccessibilityAnnounceInterval(int seconds) {
+        if (seconds >= 0 && seconds != mAccessibilityInterval) {
+            mAccessibilityInterval = seconds;
+            syncAccessibility();
+        }
+    }
+
+    /**
+     * get how often a running timer is announced to accessibility services, in seconds
+     *
+     * @return
+     */
+    public int getAccessibilityAnnounceInterval() {
+        return mAccessibilityInterval;
+    }
+
+    /**
+     * enable or disable touch coalescing, drag updates are then delivered to the listener at most once per frame with
+     * the latest value
+     *
+     * @param enabled true to coalesce
+     */
+    public void setTouchCoalescingEnabled(boolean enabled) {
+        this.mTouchCoalescingEnabled = enabled;
+    }
+
+    /**
+     * whether drag updates are coalesced to one per frame
+     *
+     * @return
+     */
+    public boolean isTouchCoalescingEnabled() {
+        return mTouchCoalescingEnabled;
+    }
+
+    /**
+     * set the step the dragged time snaps to, e.g. 60 for whole minutes or 300 for 5 minutes, default is 0 (seconds)
+     *
+     * @param step step in seconds, 0 or 1 for no snapping
+     */
+    public void setValueStep(int step) {
+        if (step >= 0) {
+            mValueStep = step;
+        }
+    }
+
+    /**
+     * get the step the dragged time snaps to, in seconds
+     *
+     * @return
+     */
+    public int getValueStep() {
+        return mValueStep;
+    }
+
+    /**
+     * set the times the dial snaps to while dragged, e.g. 30, 60, 120, 300, 600 and 900 for nonlinear steps. The
+     * listener is called and the view redrawn only when the snapped time changes. Detents replace the value step
+     *
+     * @param seconds detent times in seconds, null or none to drag freely
+     */
+    public void setDetents(int... seconds) {
+        mDetents = seconds != null && seconds.length > 0 ? seconds.clone() : null;
+        updateDetentTable();
+    }
+
+    /**
+     * get the times the dial snaps to, in seconds
+     *
+     * @return the detents, or null when they are not set
+     */
+    public int[] getDetents() {
+        return mDetents != null ? mDetents.clone() : null;
+    }
+
+    /**
+     * set detents every step, e.g. 60 for whole minutes or 300 for 5 minutes, over any number of turns. Detents set
+     * with {@link #setDetents(int...)} take precedence
+     *
+     * @param step step in seconds, 0 for none
+     */
+    public void setDetentStep(int step) {
+        if (step >= 0) {
+            mDetentStep = step;
+            updateDetentTable();
+        }
+    }
+
+    /**
+     * get the step of the detents, in seconds
+     *
+     * @return
+     */
+    public int getDetentStep() {
+        return mDetentStep;
+    }
+
+    /**
+     * enable or disable the haptic feedback when the dragged time snaps to another detent, default is enabled
+     *
+     * @param enabled true to tick
+     */
+    public void setDetentHapticsEnabled(boolean enabled) {
+        this.mDetentHapticsEnabled = enabled;
+    }
+
+    /**
+     * whether a detent change ticks
+     *
+     * @return
+     */
+    public boolean isDetentHapticsEnabled() {
+        return mDetentHapticsEnabled;
+    }
+
+    /**
+     * bind the view to a countdown kept outside of it, e.g. the model of a list item, and show it right away. The view
+     * then shows and controls that countdown, nothing is allocated and no listener is called, so a recycled view can
+     * be bound in every onBindViewHolder. The clock of the countdown must be the tick engine of the view, e.g.
+     * {@code new CountdownEngine(HandlerTickEngine.getShared())}. A running countdown keeps running while no view is
+     * bound to it
+     *
+     * @param countdown countdown of the model
+     */
+    public void bind(CountdownEngine countdown) {
+        if (countdown == null) {
+            throw new IllegalArgumentException("countdown == null");
+        }
+        if (countdown != mCountdown) {
+            mTickEngine.stop(mTickCallback);
+            cancelTouch();
+            mCountdown = countdown;
+            showCountdown();
+        }
+    }
+
+    /**
+     * unbind the view from the countdown of {@link #bind(CountdownEngine)}, e.g. in onViewRecycled. The view stops
+     * following it and shows its own countdown again, cleared
+     */
+    public void unbind() {
+        if (mCountdown != mOwnCountdown) {
+            mTickEngine.stop(mTickCallback);
+            cancelTouch();
+            mCountdown = mOwnCountdown;
+            mOwnCountdown.stop();
+            showCountdown();
+        }
+    }
+
+    /**
+     * whether the view is bound to a countdown of a model
+     *
+     * @return
+     */
+    public boolean isBound() {
+        return mCountdown != mOwnCountdown;
+    }
+
+    /**
+     * set the colors and sizes of the view in one go, e.g. on a theme switch. Only what differs from the current
+     * style is updated: a color change swaps the shared paints, a size change measures the text or lays the dial out
+     * again, and the view is invalidated once. Build the style once with {@link CircleTimerStyle.Builder} and set it
+     * on all views, they share its paints and dial layers
+     *
+     * @param style style
+     */
+    public void setStyle(CircleTimerStyle style) {
+        if (style == null) {
+            throw new IllegalArgumentException("style == null");
+        }
+        if (style == mStyle) {
+            return;
+        }
+        int changes = mStyle.diff(style);
+        applyStyle(style);
+        if ((changes & CircleTimerStyle.CHANGED_TEXT_SIZE) != 0) {
+            updateTextMetrics();
+        }
+        if ((changes & CircleTimerStyle.CHANGED_GEOMETRY) != 0) {
+            // The radius, ticks and labels follow from the measure
+            requestLayout();
+        } else if ((changes & CircleTimerStyle.CHANGED_TEXT_SIZE) != 0) {
+            updateLabelLayout();
+        }
+        if ((changes & CircleTimerStyle.CHANGED_DIAL) != 0) {
+            mDialPictureValid = false;
+        }
+        // The dial layer belongs to the style, the new one may already have it
+        mDialCacheValid = false;
+        invalidate();
+    }
+
+    /**
+     * get the style the view is drawn with, it is shared with the views inflated with the same attributes
+     *
+     * @return
+     */
+    public CircleTimerStyle getStyle() {
+        return mStyle;
+    }
+
+    /**
+     * get the countdown behind the view, its {@link CountdownEngine#snapshot()} can be read from any thread
+     *
+     * @return
+     */
+    public CountdownEngine getCountdownEngine() {
+        return mCountdown;
+    }
+
+    /**
+     * set the key the timer state is stored under, the state stored under it is restored right away. The state is then
+     * written on every start, pause, stop and set, so a running timer survives the process and is exact after a
+     * restart. Views with the same key share the state
+     *
+     * @param key key, or null to stop persisting
+     */
+    public void setPersistenceKey(String key) {
+        mPersistenceKey = key;
+        if (key == null) {
+            return;
+        }
+        String value = getContext().getSharedPreferences(PREFERENCES_NAME, Context.MODE_PRIVATE).getString(key, null);
+        if (value != null) {
+            try {
+                restoreRecord(Base64.decode(value, Base64.NO_WRAP));
+            } catch (IllegalArgumentException e) {
+                if (DEBUG) Log.d(TAG, "Invalid record " + value);
+            }
+        }
+    }
+
+    /**
+     * get the key the timer state is stored under
+     *
+     * @return
+     */
+    public String getPersistenceKey() {
+        return mPersistenceKey;
+    }
+
+    /**
+     * set the metrics that receive frame, invalidation, tick and touch measurements, null (the default) disables
+     * the measurements
+     *
+     * @param timerMetrics metrics, e.g. a {@link HistogramTimerMetrics}
+     */
+    public void setTimerMetrics(TimerMetrics timerMetrics) {
+        this.mTimerMetrics = timerMetrics;
+        mTouchEventTime = -1;
+    }
+
+    /**
+     * enable or disable drawing the static dial from a cached bitmap
+     *
+     * @param enabled true to draw the unhighlighted ticks and numbers once and reuse them on every frame
+     */
+    public void setDialCacheEnabled(boolean enabled) {
+        if (mDialCacheEnabled != enabled) {
+            mDialCacheEnabled = enabled;
+            if (!enabled) {
+                releaseDialCache();
+            }
+            invalidate();
+        }
+    }
+
+    /**
+     * choose how the view is rendered
+     * <ul>
+     * <li>{@link #RENDER_BACKEND_DEFAULT}: drawn directly by the window renderer, the static dial is cached only when
+     * the dial cache is enabled</li>
+     * <li>{@link #RENDER_BACKEND_SOFTWARE}: drawn into a software layer, for devices whose GPU driver is slower than the
+     * CPU or renders the view incorrectly</li>
+     * <li>{@link #RENDER_BACKEND_HARDWARE_LAYER}: drawn into a GPU texture, cheap when the view is animated (moved,
+     * faded) while its content stays the same, but the texture is redrawn on every timer update</li>
+     * <li>{@link #RENDER_BACKEND_DISPLAY_LIST}: the static dial is recorded once into a {@link Picture} and replayed on
+     * every frame, hardware accelerated windows below API 23 fall back to the cached bitmap</li>
+     * </ul>
+     * Measure the backends with the benchmark module on the target device class before picking one.
+     *
+     * @param renderBackend one of the RENDER_BACKEND constants
+     */
+    public void setRenderBackend(int renderBackend) {
+        if (renderBackend != mRenderBackend && renderBackend >= RENDER_BACKEND_DEFAULT
+                && renderBackend <= RENDER_BACKEND_DISPLAY_LIST) {
+            mRenderBackend = renderBackend;
+            releaseDialCache();
+            applyRenderBackend();
+            invalidate();
+        }
+    }
+
+    /**
+     * get the render backend
+     *
+     * @return
+     */
+    public int getRenderBackend() {
+        return mRenderBackend;
+    }
+
+    /**
+     * enable or disable the smooth sweep, the circle button and highlighted ticks then follow the remaining time on
+     * every frame while the timer runs
+     *
+     * @param enabled true to sweep, false to move once per second
+     */
+    public void setSweepEnabled(boolean enabled) {
+        if (mSweepEnabled != enabled) {
+            mSweepEnabled = enabled;
+            updateSweep();
+        }
+    }
+
+    /**
+     * whether the smooth sweep is enabled
+     *
+     * @return
+     */
+    public boolean isSweepEnabled() {
+        return mSweepEnabled;
+    }
+
+    /**
+     * set the maximum frame rate of the sweep, default is 60
+     *
+     * @param frameRate frames per second, or {@link #SWEEP_FRAME_RATE_ON_TICK_CHANGE} to redraw only when the
+     *                  highlighted ticks change
+     */
+    public void setSweepFrameRate(int frameRate) {
+        if (frameRate >= SWEEP_FRAME_RATE_ON_TICK_CHANGE) {
+            mSweepFrameRate = frameRate;
+            updateSweep();
+        }
+    }
+
+    /**
+     * get the maximum frame rate of the sweep
+     *
+     * @return
+     */
+    public int getSweepFrameRate() {
+        return mSweepFrameRate;
+    }
+
+    /**
+     * whether the static dial is drawn from a cached bitmap
+     *
+     * @return
+     */
+    public boolean isDialCacheEnabled() {
+        return mDialCacheEnabled;
+    }
 
     /**
      * get current time in seconds
@@ -500,6 +2043,24 @@ public class CircleTimerView extends View {
         return mCurrentTime;
     }
 
+    /**
+     * get current time in milliseconds
+     *
+     * @return
+     */
+    public long getCurrentMillis() {
+        return mCurrentMillis;
+    }
+
+    /**
+     * get the whole turns of the dial before the shown one, drawn on the outer ring
+     *
+     * @return
+     */
+    public int getTurnCount() {
+        return mCurrentTurns;
+    }
+
 
     public interface CircleTimerListener {
         /**
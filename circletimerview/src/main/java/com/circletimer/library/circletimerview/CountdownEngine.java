@@ -0,0 +1,240 @@
+package com.circletimer.library.circletimerview;
+
+/**
+ * Countdown state without any Android dependency.
+ * <p>
+ * The remaining time is kept in milliseconds: as a deadline on the engine clock while running and as a plain duration
+ * while paused. Displayed seconds and the dial angle are always derived from it, see {@link #secondsOf(long)} and
+ * {@link #radianOf(long)}, so they cannot drift apart. Times of several turns of the dial are split into whole turns
+ * and the angle within the shown turn, see {@link #turnsOf(long, long)} and {@link #turnRadianOf(long, long)}. All
+ * methods are thread safe, readers on other threads should use {@link #snapshot()} to get a consistent view of the
+ * state.
+ */
+public class CountdownEngine {
+
+    /**
+     * Millisecond time source of the deadline
+     */
+    public interface Clock {
+        /**
+         * @return current time in milliseconds
+         */
+        long now();
+    }
+
+    /**
+     * Monotonic clock of the JVM
+     */
+    public static final Clock SYSTEM_CLOCK = new Clock() {
+        @Override
+        public long now() {
+            return System.nanoTime() / 1000000;
+        }
+    };
+
+    /**
+     * Duration of one turn of the dial
+     */
+    public static final long TURN_MILLIS = 3600000;
+
+    private final Clock mClock;
+    private boolean mRunning;
+    private long mDeadline;
+    private long mRemainingMillis;
+
+    public CountdownEngine() {
+        this(SYSTEM_CLOCK);
+    }
+
+    public CountdownEngine(Clock clock) {
+        if (clock == null) {
+            throw new IllegalArgumentException("clock == null");
+        }
+        mClock = clock;
+    }
+
+    public Clock getClock() {
+        return mClock;
+    }
+
+    /**
+     * Start or resume the countdown
+     *
+     * @return false when it is already running or there is no time left
+     */
+    public synchronized boolean start() {
+        if (mRunning || mRemainingMillis <= 0) {
+            return false;
+        }
+        mDeadline = mClock.now() + mRemainingMillis;
+        mRunning = true;
+        return true;
+    }
+
+    /**
+     * Pause the countdown, keeping the remaining time
+     *
+     * @return false when it was not running
+     */
+    public synchronized boolean pause() {
+        if (!mRunning) {
+            return false;
+        }
+        mRemainingMillis = Math.max(0, mDeadline - mClock.now());
+        mRunning = false;
+        return true;
+    }
+
+    /**
+     * Stop the countdown and clear the remaining time
+     */
+    public synchronized void stop() {
+        mRunning = false;
+        mRemainingMillis = 0;
+    }
+
+    /**
+     * Set the remaining time, a running countdown continues from it
+     *
+     * @param remainingMillis remaining time in milliseconds
+     */
+    public synchronized void setRemainingMillis(long remainingMillis) {
+        remainingMillis = Math.max(0, remainingMillis);
+        if (mRunning) {
+            mDeadline = mClock.now() + remainingMillis;
+        } else {
+            mRemainingMillis = remainingMillis;
+        }
+    }
+
+    /**
+     * Replace the whole state, e.g. with a restored one
+     *
+     * @param running         whether the countdown runs
+     * @param deadline        deadline on the engine clock, used when running
+     * @param remainingMillis remaining time in milliseconds, used when paused
+     */
+    public synchronized void restore(boolean running, long deadline, long remainingMillis) {
+        mRunning = running;
+        mDeadline = deadline;
+        mRemainingMillis = running ? 0 : Math.max(0, remainingMillis);
+    }
+
+    /**
+     * @return remaining time in milliseconds, now
+     */
+    public synchronized long getRemainingMillis() {
+        return getRemainingMillis(mClock.now());
+    }
+
+    /**
+     * @param now time of the engine clock
+     * @return remaining time in milliseconds at the given time
+     */
+    public synchronized long getRemainingMillis(long now) {
+        return mRunning ? Math.max(0, mDeadline - now) : mRemainingMillis;
+    }
+
+    public synchronized boolean isRunning() {
+        return mRunning;
+    }
+
+    /**
+     * @return the deadline on the engine clock, only meaningful while running
+     */
+    public synchronized long getDeadline() {
+        return mDeadline;
+    }
+
+    /**
+     * @param now time of the engine clock
+     * @return the time at which the displayed second changes next, the deadline when less than a second is left, or
+     * -1 when the countdown is not running
+     */
+    public synchronized long getNextChangeTime(long now) {
+        return mRunning ? nextChangeTime(mDeadline, now) : -1;
+    }
+
+    /**
+     * @param deadline deadline of a running countdown on the engine clock
+     * @param now      time of the engine clock
+     * @return the time at which the displayed second of the countdown changes next, the deadline when less than a
+     * second is left
+     */
+    public static long nextChangeTime(long deadline, long now) {
+        long remaining = deadline - now;
+        if (remaining <= 1000) {
+            return deadline;
+        }
+        // The displayed value is the remaining time rounded up to whole seconds
+        return deadline - (remaining - 1) / 1000 * 1000;
+    }
+
+    /**
+     * @return the current state
+     */
+    public synchronized TimerState snapshot() {
+        long now = mClock.now();
+        return new TimerState(mRunning, getRemainingMillis(now), mDeadline, now);
+    }
+
+    /**
+     * @return remaining time rounded up to whole seconds
+     */
+    public static int secondsOf(long millis) {
+        return (int) ((millis + 999) / 1000);
+    }
+
+    /**
+     * @return angle of the dial for the remaining time, one hour per turn
+     */
+    public static float radianOf(long millis) {
+        return radianOf(millis, TURN_MILLIS);
+    }
+
+    /**
+     * @return angle of the dial for the remaining time, turnMillis per turn
+     */
+    public static float radianOf(long millis, long turnMillis) {
+        return (float) (millis * 2 * Math.PI / turnMillis);
+    }
+
+    /**
+     * @return remaining time for the angle of the dial, one hour per turn
+     */
+    public static long millisOf(float radian) {
+        return millisOf(radian, TURN_MILLIS);
+    }
+
+    /**
+     * @return remaining time for the angle of the dial, turnMillis per turn
+     */
+    public static long millisOf(float radian, long turnMillis) {
+        return (long) ((double) radian * turnMillis / (2 * Math.PI));
+    }
+
+    /**
+     * @return whole turns of the dial before the shown one, a time of exactly n turns shows n - 1 turns and a full dial
+     */
+    public static int turnsOf(long millis, long turnMillis) {
+        return millis > 0 ? (int) ((millis - 1) / turnMillis) : 0;
+    }
+
+    /**
+     * @return angle of the dial within the shown turn, up to 2 pi. The whole turns are removed in integer arithmetic,
+     * so the angle keeps its precision for times of many days
+     */
+    public static float turnRadianOf(long millis, long turnMillis) {
+        return radianOf(millis - turnsOf(millis, turnMillis) * turnMillis, turnMillis);
+    }
+
+    /**
+     * @param turns  whole turns of the dial
+     * @param radian angle within the turn
+     * @return time of the turns and the angle, rounded to the millisecond so that the angle of a whole millisecond
+     * maps back to it exactly
+     */
+    public static long millisOf(int turns, double radian, long turnMillis) {
+        return turns * turnMillis + Math.round(radian * turnMillis / (2 * Math.PI));
+    }
+}
@@ -0,0 +1,100 @@
+package com.circletimer.library.circletimerview;
+
+import java.util.Arrays;
+
+/**
+ * Snaps dragged times to the nearest of a sorted set of detent times.
+ * <p>
+ * The times up to the last detent are split into buckets of half a degree of the dial, each holding the detent
+ * nearest to the start of the bucket. A lookup reads the bucket of the time and moves forward past the detents that
+ * are nearer, at most a few steps, so snapping costs the same for evenly spaced and for nonlinear detents, for one or
+ * for many turns of the dial, and never allocates.
+ */
+final class DetentTable {
+
+    private static final int BUCKETS_PER_TURN = 720;
+    private static final int MAX_BUCKETS = 1 << 16;
+
+    private final long[] mDetents;
+    private final int[] mBuckets;
+    private final long mBucketMillis;
+
+    /**
+     * @param seconds    detent times in seconds, in any order, negative ones are ignored
+     * @param turnMillis duration of one turn of the dial
+     */
+    DetentTable(int[] seconds, long turnMillis) {
+        int[] sorted = seconds.clone();
+        Arrays.sort(sorted);
+        long[] detents = new long[sorted.length];
+        int count = 0;
+        for (int value : sorted) {
+            if (value >= 0 && (count == 0 || value * 1000L != detents[count - 1])) {
+                detents[count++] = value * 1000L;
+            }
+        }
+        if (count == 0) {
+            throw new IllegalArgumentException("No detent");
+        }
+        mDetents = Arrays.copyOf(detents, count);
+
+        // Spread the buckets over the last detent when it is too far for half degree buckets
+        long last = mDetents[count - 1];
+        mBucketMillis = Math.max(Math.max(1, turnMillis / BUCKETS_PER_TURN), last / (MAX_BUCKETS - 1) + 1);
+        int buckets = (int) (last / mBucketMillis) + 1;
+        mBuckets = new int[buckets];
+        int index = 0;
+        for (int b = 0; b < buckets; b++) {
+            index = advance(index, b * mBucketMillis);
+            mBuckets[b] = index;
+        }
+    }
+
+    /**
+     * @param millis dragged time
+     * @return index of the nearest detent
+     */
+    int indexOf(long millis) {
+        long bucket = millis / mBucketMillis;
+        return advance(mBuckets[bucket < 0 ? 0 : bucket >= mBuckets.length ? mBuckets.length - 1 : (int) bucket], millis);
+    }
+
+    /**
+     * Move forward from a detent that is not past the nearest one to the nearest one, ties go to the smaller detent
+     */
+    private int advance(int index, long millis) {
+        while (index + 1 < mDetents.length && mDetents[index + 1] - millis < millis - mDetents[index]) {
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * @return detent time in milliseconds
+     */
+    long getMillis(int index) {
+        return mDetents[index];
+    }
+
+    int size() {
+        return mDetents.length;
+    }
+
+    /**
+     * @return index of the first detent after the time, or -1 when there is none
+     */
+    int next(long millis) {
+        int index = Arrays.binarySearch(mDetents, millis);
+        index = index >= 0 ? index + 1 : -index - 1;
+        return index < mDetents.length ? index : -1;
+    }
+
+    /**
+     * @return index of the last detent before the time, or -1 when there is none
+     */
+    int previous(long millis) {
+        int index = Arrays.binarySearch(mDetents, millis);
+        index = index >= 0 ? index - 1 : -index - 2;
+        return index;
+    }
+}
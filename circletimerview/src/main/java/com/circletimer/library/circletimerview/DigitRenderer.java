@@ -0,0 +1,150 @@
+package com.circletimer.library.circletimerview;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.Typeface;
+
+/**
+ * Draws the timer text from glyphs that are shaped once per paint configuration.
+ * <p>
+ * The timer text only uses the digits, ':' and '.'. Their outlines are taken from the paint once and every digit
+ * gets the cell width of the widest digit, so the text keeps its width and does not jitter while counting down. A
+ * frame then adds the cached outlines into one path and draws it with a single call, no text is shaped. When
+ * rasterized, every glyph is rendered into an alpha bitmap once and a frame blits one bitmap per char, tinted with
+ * the paint color.
+ */
+final class DigitRenderer {
+
+    private static final String GLYPHS = "0123456789:.";
+    private static final int DIGIT_COUNT = 10;
+
+    private final Path[] mGlyphPaths = new Path[GLYPHS.length()];
+    private final float[] mAdvances = new float[GLYPHS.length()];
+    private final Bitmap[] mGlyphBitmaps = new Bitmap[GLYPHS.length()];
+    private final Paint mGlyphPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Path mTextPath = new Path();
+    private float mDigitWidth;
+    private float mAscent;
+    private boolean mRasterized;
+
+    // Paint configuration the glyphs were made for
+    private boolean mValid;
+    private float mTextSize;
+    private Typeface mTypeface;
+
+    DigitRenderer() {
+        for (int i = 0; i < mGlyphPaths.length; i++) {
+            mGlyphPaths[i] = new Path();
+        }
+    }
+
+    /**
+     * Whether the glyphs are drawn as bitmaps instead of paths
+     */
+    void setRasterized(boolean rasterized) {
+        if (rasterized != mRasterized) {
+            mRasterized = rasterized;
+            mValid = false;
+        }
+    }
+
+    /**
+     * Draw the text centered on x, the glyphs are made again when the size or typeface of the paint changed. The text
+     * may only contain digits, ':' and '.'
+     *
+     * @param y baseline
+     * @return number of canvas calls issued
+     */
+    int draw(Canvas canvas, char[] text, int length, float x, float y, Paint paint) {
+        if (!mValid || paint.getTextSize() != mTextSize || paint.getTypeface() != mTypeface) {
+            update(paint);
+        }
+        float left = x - measure(text, length) / 2;
+        if (mRasterized) {
+            for (int i = 0; i < length; i++) {
+                int glyph = GLYPHS.indexOf(text[i]);
+                float cell = getCellWidth(glyph);
+                Bitmap bitmap = mGlyphBitmaps[glyph];
+                if (bitmap != null) {
+                    canvas.drawBitmap(bitmap, left + (cell - mAdvances[glyph]) / 2, y + mAscent, paint);
+                }
+                left += cell;
+            }
+            return length;
+        }
+        mTextPath.reset();
+        for (int i = 0; i < length; i++) {
+            int glyph = GLYPHS.indexOf(text[i]);
+            float cell = getCellWidth(glyph);
+            mTextPath.addPath(mGlyphPaths[glyph], left + (cell - mAdvances[glyph]) / 2, y);
+            left += cell;
+        }
+        canvas.drawPath(mTextPath, paint);
+        return 1;
+    }
+
+    /**
+     * @return width of the text with tabular digits
+     */
+    float measure(char[] text, int length) {
+        float width = 0;
+        for (int i = 0; i < length; i++) {
+            width += getCellWidth(GLYPHS.indexOf(text[i]));
+        }
+        return width;
+    }
+
+    private float getCellWidth(int glyph) {
+        return glyph < DIGIT_COUNT ? mDigitWidth : mAdvances[glyph];
+    }
+
+    private void update(Paint paint) {
+        mGlyphPaint.set(paint);
+        mGlyphPaint.setTextAlign(Paint.Align.LEFT);
+        mGlyphPaint.setStyle(Paint.Style.FILL);
+        // Bitmaps only hold coverage, the color and alpha of the paint are applied when they are drawn
+        mGlyphPaint.setColor(0xFF000000);
+        mTextSize = paint.getTextSize();
+        mTypeface = paint.getTypeface();
+
+        Paint.FontMetrics metrics = mGlyphPaint.getFontMetrics();
+        mAscent = metrics.ascent;
+        int height = (int) Math.ceil(metrics.descent - metrics.ascent);
+        mDigitWidth = 0;
+        for (int i = 0; i < mGlyphPaths.length; i++) {
+            String glyph = GLYPHS.substring(i, i + 1);
+            mAdvances[i] = mGlyphPaint.measureText(glyph);
+            if (i < DIGIT_COUNT) {
+                mDigitWidth = Math.max(mDigitWidth, mAdvances[i]);
+            }
+            mGlyphPaths[i].reset();
+            mGlyphPaint.getTextPath(glyph, 0, 1, 0, 0, mGlyphPaths[i]);
+
+            if (mGlyphBitmaps[i] != null) {
+                mGlyphBitmaps[i].recycle();
+                mGlyphBitmaps[i] = null;
+            }
+            int width = (int) Math.ceil(mAdvances[i]);
+            if (mRasterized && width > 0 && height > 0) {
+                mGlyphBitmaps[i] = Bitmap.createBitmap(width, height, Bitmap.Config.ALPHA_8);
+                new Canvas(mGlyphBitmaps[i]).drawText(glyph, 0, -mAscent, mGlyphPaint);
+            }
+        }
+        mValid = true;
+    }
+
+    /**
+     * Free the glyph bitmaps, they are made again on the next draw
+     */
+    void release() {
+        for (int i = 0; i < mGlyphBitmaps.length; i++) {
+            if (mGlyphBitmaps[i] != null) {
+                mGlyphBitmaps[i].recycle();
+                mGlyphBitmaps[i] = null;
+            }
+        }
+        mValid = false;
+    }
+}
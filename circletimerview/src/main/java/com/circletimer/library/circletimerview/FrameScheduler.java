@@ -0,0 +1,86 @@
+package com.circletimer.library.circletimerview;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+
+/**
+ * Runs a task on the main thread in sync with the display frames.
+ * <p>
+ * Uses {@link Choreographer} from API 16, and a 16 ms handler delay before that. A task is scheduled at most once,
+ * scheduling it again before it ran replaces the pending request.
+ */
+abstract class FrameScheduler {
+
+    protected static final long FRAME_DELAY = 16;
+
+    protected final Runnable mFrame;
+
+    FrameScheduler(Runnable frame) {
+        mFrame = frame;
+    }
+
+    static FrameScheduler create(Runnable frame) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            return new ChoreographerFrameScheduler(frame);
+        }
+        return new HandlerFrameScheduler(frame);
+    }
+
+    /**
+     * Run the task on the first frame after the delay
+     *
+     * @param delayMillis 0 for the next frame
+     */
+    abstract void schedule(long delayMillis);
+
+    abstract void cancel();
+
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+    private static class ChoreographerFrameScheduler extends FrameScheduler implements Choreographer.FrameCallback {
+
+        private final Choreographer mChoreographer = Choreographer.getInstance();
+
+        ChoreographerFrameScheduler(Runnable frame) {
+            super(frame);
+        }
+
+        @Override
+        void schedule(long delayMillis) {
+            mChoreographer.removeFrameCallback(this);
+            mChoreographer.postFrameCallbackDelayed(this, delayMillis);
+        }
+
+        @Override
+        void cancel() {
+            mChoreographer.removeFrameCallback(this);
+        }
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            mFrame.run();
+        }
+    }
+
+    private static class HandlerFrameScheduler extends FrameScheduler {
+
+        private final Handler mHandler = new Handler(Looper.getMainLooper());
+
+        HandlerFrameScheduler(Runnable frame) {
+            super(frame);
+        }
+
+        @Override
+        void schedule(long delayMillis) {
+            mHandler.removeCallbacks(mFrame);
+            mHandler.postDelayed(mFrame, Math.max(delayMillis, FRAME_DELAY));
+        }
+
+        @Override
+        void cancel() {
+            mHandler.removeCallbacks(mFrame);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.circletimer.library.circletimerview;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+/**
+ * Tick engine on the main thread, tick times are on the {@link SystemClock#elapsedRealtime()} clock.
+ * <p>
+ * It does not start any thread, all callbacks share one message on the main looper. {@link #getShared()} is the
+ * engine all views use by default.
+ */
+public class HandlerTickEngine extends TickEngine {
+
+    /**
+     * Alignment of the shared engine, all running timers of the process tick together once per second
+     */
+    public static final long SHARED_ALIGNMENT = 1000;
+
+    private static HandlerTickEngine sShared;
+
+    /**
+     * get the process wide engine, its ticks are aligned to {@link #SHARED_ALIGNMENT}
+     *
+     * @return
+     */
+    public static synchronized HandlerTickEngine getShared() {
+        if (sShared == null) {
+            sShared = new HandlerTickEngine();
+            sShared.setAlignment(SHARED_ALIGNMENT);
+        }
+        return sShared;
+    }
+
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+
+    private final Runnable mWakeup = new Runnable() {
+        @Override
+        public void run() {
+            dispatchTicks();
+        }
+    };
+
+    @Override
+    public long now() {
+        return SystemClock.elapsedRealtime();
+    }
+
+    @Override
+    protected void scheduleWakeup(long time) {
+        mHandler.removeCallbacks(mWakeup);
+        mHandler.postAtTime(mWakeup, SystemClock.uptimeMillis() + Math.max(0, time - now()));
+    }
+
+    @Override
+    protected void cancelWakeup() {
+        mHandler.removeCallbacks(mWakeup);
+    }
+}
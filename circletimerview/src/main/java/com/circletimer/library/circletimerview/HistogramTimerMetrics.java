@@ -0,0 +1,93 @@
+package com.circletimer.library.circletimerview;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Aggregates the measurements of one or more views into lock free histograms, which can be read and reset from any
+ * thread, e.g. by a periodic telemetry upload.
+ */
+public class HistogramTimerMetrics implements TimerMetrics {
+
+    private final LatencyHistogram mFrameDuration = new LatencyHistogram();
+    private final LatencyHistogram mDrawOps = new LatencyHistogram();
+    private final LatencyHistogram mTickJitter = new LatencyHistogram();
+    private final LatencyHistogram mTouchToFrame = new LatencyHistogram();
+    private final AtomicLongArray mInvalidations = new AtomicLongArray(INVALIDATE_REASON_COUNT);
+    private final AtomicLongArray mSkippedInvalidations = new AtomicLongArray(INVALIDATE_REASON_COUNT);
+
+    @Override
+    public void onFrameDrawn(long durationNanos, int drawOps) {
+        mFrameDuration.record(durationNanos);
+        mDrawOps.record(drawOps);
+    }
+
+    @Override
+    public void onInvalidate(int reason, boolean skipped) {
+        (skipped ? mSkippedInvalidations : mInvalidations).incrementAndGet(reason);
+    }
+
+    @Override
+    public void onTick(long scheduledTime, long actualTime) {
+        mTickJitter.record(actualTime - scheduledTime);
+    }
+
+    @Override
+    public void onTouchToFrame(long latencyMillis) {
+        mTouchToFrame.record(latencyMillis);
+    }
+
+    /**
+     * @return onDraw durations in nanoseconds
+     */
+    public LatencyHistogram getFrameDuration() {
+        return mFrameDuration;
+    }
+
+    /**
+     * @return canvas calls per frame
+     */
+    public LatencyHistogram getDrawOps() {
+        return mDrawOps;
+    }
+
+    /**
+     * @return tick delays in milliseconds after the scheduled time
+     */
+    public LatencyHistogram getTickJitter() {
+        return mTickJitter;
+    }
+
+    /**
+     * @return touch to frame latencies in milliseconds
+     */
+    public LatencyHistogram getTouchToFrame() {
+        return mTouchToFrame;
+    }
+
+    /**
+     * @param reason one of the INVALIDATE constants
+     * @return number of requested redraws for the reason
+     */
+    public long getInvalidationCount(int reason) {
+        return mInvalidations.get(reason);
+    }
+
+    /**
+     * @param reason one of the INVALIDATE constants
+     * @return number of redraws skipped because nothing visible changed
+     */
+    public long getSkippedInvalidationCount(int reason) {
+        return mSkippedInvalidations.get(reason);
+    }
+
+    public void reset() {
+        mFrameDuration.reset();
+        mDrawOps.reset();
+        mTickJitter.reset();
+        mTouchToFrame.reset();
+        for (int i = 0; i < INVALIDATE_REASON_COUNT; i++) {
+            mInvalidations.set(i, 0);
+            mSkippedInvalidations.set(i, 0);
+        }
+    }
+}
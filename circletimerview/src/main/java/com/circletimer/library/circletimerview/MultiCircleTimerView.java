@@ -0,0 +1,546 @@
+package com.circletimer.library.circletimerview;
+
+import android.content.Context;
+import android.content.res.TypedArray;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.RectF;
+import android.util.AttributeSet;
+import android.util.Log;
+import android.util.TypedValue;
+import android.view.View;
+
+/**
+ * Shows several independent countdowns as concentric rings in one view.
+ * <p>
+ * Ring 0 is the outer ring. Every ring counts down from a deadline on the tick engine clock and shows the remaining
+ * time within the current turn as an arc, one turn being the dial range, like the dial of {@link CircleTimerView}. The state of all rings is kept in parallel
+ * primitive arrays, all rings are drawn in one pass and share one tick engine callback, so adding a ring costs no
+ * thread, view or per tick allocation. A tick only invalidates the rings whose displayed value changed.
+ */
+public class MultiCircleTimerView extends View {
+
+    protected static final String TAG = "MultiCircleTimerView";
+    protected static final boolean DEBUG = false;
+
+    protected static final float DEFAULT_RING_WIDTH = 8;
+    protected static final float DEFAULT_RING_GAP = 4;
+    protected static final int DEFAULT_RING_TRACK_COLOR = 0xFFE9E2D9;
+    protected static final int DEFAULT_RING_COLOR = 0xFF68C5D7;
+    protected static final int DEFAULT_DIAL_RANGE = 3600;
+
+    // Paint
+    protected Paint mTrackPaint;
+    protected Paint mRingPaint;
+
+    // Dimension and color
+    protected float mRingWidth;
+    protected float mRingGap;
+    protected int mTrackColor;
+
+    // Parameters
+    protected float mCx;
+    protected float mCy;
+    protected float mRadius;
+    protected final RectF mArcRect = new RectF();
+    protected long mTurnMillis;
+
+    // Rings, one entry per ring in every array
+    protected int mRingCount;
+    protected long[] mDeadlines = new long[4];
+    protected long[] mRemainingMillis = new long[4];
+    protected int[] mTimes = new int[4]; // seconds
+    protected float[] mRadians = new float[4];
+    protected boolean[] mStarted = new boolean[4];
+    protected int[] mColors = new int[4];
+    protected int[] mDrawnTimes = new int[4];
+    protected RingListener[] mRingListeners = new RingListener[4];
+
+    // Countdown, one callback serves all running rings
+    protected TickEngine mTickEngine = HandlerTickEngine.getShared();
+    protected boolean mDetached;
+
+    protected final TickEngine.DeadlineCallback mTickCallback = new TickEngine.DeadlineCallback() {
+        @Override
+        public long onTick(long now) {
+            return onRingsTick(now);
+        }
+
+        @Override
+        public long getDeadline() {
+            long deadline = nextDeadline();
+            return deadline == Long.MAX_VALUE ? -1 : deadline;
+        }
+    };
+
+    public MultiCircleTimerView(Context context) {
+        this(context, null);
+    }
+
+    public MultiCircleTimerView(Context context, AttributeSet attrs) {
+        this(context, attrs, 0);
+    }
+
+    public MultiCircleTimerView(Context context, AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+        initialize(context, attrs, defStyleAttr);
+    }
+
+    private void initialize(Context context, AttributeSet attrs, int defStyleAttr) {
+        TypedArray ta = context.obtainStyledAttributes(attrs, R.styleable.MultiCircleTimerView, defStyleAttr, 0);
+        mRingWidth = ta.getDimension(R.styleable.MultiCircleTimerView_ringWidth, TypedValue.applyDimension(
+                TypedValue.COMPLEX_UNIT_DIP, DEFAULT_RING_WIDTH, getResources().getDisplayMetrics()));
+        mRingGap = ta.getDimension(R.styleable.MultiCircleTimerView_ringGap, TypedValue.applyDimension(
+                TypedValue.COMPLEX_UNIT_DIP, DEFAULT_RING_GAP, getResources().getDisplayMetrics()));
+        mTrackColor = ta.getColor(R.styleable.MultiCircleTimerView_ringTrackColor, DEFAULT_RING_TRACK_COLOR);
+        mTurnMillis = Math.max(1, ta.getInt(R.styleable.MultiCircleTimerView_dialRange, DEFAULT_DIAL_RANGE)) * 1000L;
+        ta.recycle();
+
+        mTrackPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        mTrackPaint.setColor(mTrackColor);
+        mTrackPaint.setStyle(Paint.Style.STROKE);
+        mTrackPaint.setStrokeWidth(mRingWidth);
+
+        mRingPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        mRingPaint.setStyle(Paint.Style.STROKE);
+        mRingPaint.setStrokeWidth(mRingWidth);
+        mRingPaint.setStrokeCap(Paint.Cap.ROUND);
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        super.onMeasure(widthMeasureSpec, heightMeasureSpec);
+        int width = MeasureSpec.getSize(widthMeasureSpec);
+        int height = MeasureSpec.getSize(heightMeasureSpec);
+        mCx = width / 2;
+        mCy = height / 2;
+        mRadius = Math.min(width, height) / 2 - mRingWidth / 2;
+        setMeasuredDimension(width, height);
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        if (DEBUG) Log.d(TAG, "onDraw");
+        for (int i = 0; i < mRingCount; i++) {
+            float radius = getRingRadius(i);
+            if (radius <= 0) {
+                break;
+            }
+            canvas.drawCircle(mCx, mCy, radius, mTrackPaint);
+            if (mRadians[i] > 0) {
+                mArcRect.set(mCx - radius, mCy - radius, mCx + radius, mCy + radius);
+                mRingPaint.setColor(mColors[i]);
+                canvas.drawArc(mArcRect, -90, (float) Math.toDegrees(mRadians[i]), false, mRingPaint);
+            }
+            mDrawnTimes[i] = mTimes[i];
+        }
+        super.onDraw(canvas);
+    }
+
+    /**
+     * @return radius of the center line of the ring
+     */
+    protected float getRingRadius(int ring) {
+        return mRadius - ring * (mRingWidth + mRingGap);
+    }
+
+    /**
+     * Invalidate the rings whose displayed value changed since the last frame. Rings are concentric, so the area of
+     * the outermost changed ring covers all others.
+     */
+    protected void invalidateChangedRings() {
+        for (int i = 0; i < mRingCount; i++) {
+            if (mTimes[i] != mDrawnTimes[i]) {
+                invalidateRing(i);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Invalidate the area of the ring and the rings inside it
+     */
+    protected void invalidateRing(int ring) {
+        float extent = getRingRadius(ring) + mRingWidth / 2 + 1;
+        invalidate((int) (mCx - extent), (int) (mCy - extent), (int) Math.ceil(mCx + extent),
+                (int) Math.ceil(mCy + extent));
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        mDetached = false;
+        // Catch up with the deadlines right away
+        scheduleTick(mTickEngine.now());
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        mDetached = true;
+        // The rings keep their deadlines, a detached view only wakes up at each deadline to stop the ring and report
+        // the stop
+        scheduleTick(mTickEngine.now());
+    }
+
+    /**
+     * Recompute the displayed time of every running ring from its deadline
+     *
+     * @return time of the next tick of any ring
+     */
+    protected long onRingsTick(long now) {
+        // Iterate on a stable count, a listener may add rings
+        int count = mRingCount;
+        for (int i = 0; i < count && i < mRingCount; i++) {
+            if (!mStarted[i]) {
+                continue;
+            }
+            long remaining = mDeadlines[i] - now;
+            if (remaining > 0) {
+                mRadians[i] = CountdownEngine.turnRadianOf(remaining, mTurnMillis);
+                setDisplayedTime(i, CountdownEngine.secondsOf(remaining));
+            } else {
+                mRadians[i] = 0;
+                mRemainingMillis[i] = 0;
+                mStarted[i] = false;
+                setDisplayedTime(i, 0);
+                if (mRingListeners[i] != null) {
+                    mRingListeners[i].onRingStop(i);
+                }
+            }
+        }
+        invalidateChangedRings();
+        // Listeners may have started or paused rings, so look at all of them again
+        long next = nextWakeupTime(now);
+        return next == Long.MAX_VALUE ? TickEngine.STOP : next;
+    }
+
+    private void setDisplayedTime(int ring, int time) {
+        if (mTimes[ring] != time) {
+            mTimes[ring] = time;
+            if (mRingListeners[ring] != null) {
+                mRingListeners[ring].onRingTimingValueChanged(ring, time);
+            }
+        }
+    }
+
+    /**
+     * @return the earliest tick of the running rings, or Long.MAX_VALUE when no ring is running
+     */
+    private long nextTickTime(long now) {
+        long next = Long.MAX_VALUE;
+        for (int i = 0; i < mRingCount; i++) {
+            if (mStarted[i]) {
+                next = Math.min(next, CountdownEngine.nextChangeTime(mDeadlines[i], now));
+            }
+        }
+        return next;
+    }
+
+    /**
+     * @return the earliest deadline of the running rings, or Long.MAX_VALUE when no ring is running
+     */
+    private long nextDeadline() {
+        long deadline = Long.MAX_VALUE;
+        for (int i = 0; i < mRingCount; i++) {
+            if (mStarted[i]) {
+                deadline = Math.min(deadline, mDeadlines[i]);
+            }
+        }
+        return deadline;
+    }
+
+    /**
+     * @return the earliest tick of the running rings, or only their earliest deadline while detached
+     */
+    private long nextWakeupTime(long now) {
+        return mDetached ? nextDeadline() : nextTickTime(now);
+    }
+
+    /**
+     * Aim the shared callback at the next wakeup of the running rings
+     */
+    private void scheduleTick(long now) {
+        long next = nextWakeupTime(now);
+        if (next == Long.MAX_VALUE) {
+            mTickEngine.stop(mTickCallback);
+        } else {
+            mTickEngine.start(mTickCallback, next);
+        }
+    }
+
+    private void checkRing(int ring) {
+        if (ring < 0 || ring >= mRingCount) {
+            throw new IndexOutOfBoundsException("ring " + ring + ", count " + mRingCount);
+        }
+    }
+
+    private void grow() {
+        int capacity = mDeadlines.length * 2;
+        long[] deadlines = new long[capacity];
+        long[] remainingMillis = new long[capacity];
+        int[] times = new int[capacity];
+        float[] radians = new float[capacity];
+        boolean[] started = new boolean[capacity];
+        int[] colors = new int[capacity];
+        int[] drawnTimes = new int[capacity];
+        RingListener[] listeners = new RingListener[capacity];
+        System.arraycopy(mDeadlines, 0, deadlines, 0, mRingCount);
+        System.arraycopy(mRemainingMillis, 0, remainingMillis, 0, mRingCount);
+        System.arraycopy(mTimes, 0, times, 0, mRingCount);
+        System.arraycopy(mRadians, 0, radians, 0, mRingCount);
+        System.arraycopy(mStarted, 0, started, 0, mRingCount);
+        System.arraycopy(mColors, 0, colors, 0, mRingCount);
+        System.arraycopy(mDrawnTimes, 0, drawnTimes, 0, mRingCount);
+        System.arraycopy(mRingListeners, 0, listeners, 0, mRingCount);
+        mDeadlines = deadlines;
+        mRemainingMillis = remainingMillis;
+        mTimes = times;
+        mRadians = radians;
+        mStarted = started;
+        mColors = colors;
+        mDrawnTimes = drawnTimes;
+        mRingListeners = listeners;
+    }
+
+    /**
+     * add a ring inside the existing rings
+     *
+     * @param color color of the remaining time arc
+     * @return index of the new ring
+     */
+    public int addRing(int color) {
+        if (mRingCount == mDeadlines.length) {
+            grow();
+        }
+        int ring = mRingCount++;
+        mDeadlines[ring] = 0;
+        mRemainingMillis[ring] = 0;
+        mTimes[ring] = 0;
+        mRadians[ring] = 0;
+        mStarted[ring] = false;
+        mColors[ring] = color;
+        mDrawnTimes[ring] = 0;
+        mRingListeners[ring] = null;
+        invalidateRing(ring);
+        return ring;
+    }
+
+    /**
+     * add a ring with the default color
+     *
+     * @return index of the new ring
+     */
+    public int addRing() {
+        return addRing(DEFAULT_RING_COLOR);
+    }
+
+    /**
+     * remove all rings
+     */
+    public void clearRings() {
+        mTickEngine.stop(mTickCallback);
+        for (int i = 0; i < mRingCount; i++) {
+            mRingListeners[i] = null;
+        }
+        mRingCount = 0;
+        invalidate();
+    }
+
+    /**
+     * get the number of rings
+     *
+     * @return
+     */
+    public int getRingCount() {
+        return mRingCount;
+    }
+
+    /**
+     * set the time of the ring in seconds, a running ring continues from the new time
+     *
+     * @param ring index of the ring
+     * @param time time in seconds, the arc shows the time within the current turn of the dial range
+     */
+    public void setRingTime(int ring, int time) {
+        checkRing(ring);
+        if (time < 0) {
+            return;
+        }
+        long remaining = time * 1000L;
+        mRemainingMillis[ring] = remaining;
+        mTimes[ring] = time;
+        mRadians[ring] = CountdownEngine.turnRadianOf(remaining, mTurnMillis);
+        if (mStarted[ring]) {
+            long now = mTickEngine.now();
+            mDeadlines[ring] = now + remaining;
+            scheduleTick(now);
+        }
+        invalidateChangedRings();
+    }
+
+    /**
+     * get the displayed time of the ring in seconds
+     *
+     * @param ring index of the ring
+     * @return
+     */
+    public int getRingTime(int ring) {
+        checkRing(ring);
+        return mTimes[ring];
+    }
+
+    /**
+     * start the countdown of the ring
+     *
+     * @param ring index of the ring
+     */
+    public void startRing(int ring) {
+        checkRing(ring);
+        if (mStarted[ring] || mRemainingMillis[ring] <= 0) {
+            return;
+        }
+        long now = mTickEngine.now();
+        mDeadlines[ring] = now + mRemainingMillis[ring];
+        mStarted[ring] = true;
+        scheduleTick(now);
+        if (mRingListeners[ring] != null) {
+            mRingListeners[ring].onRingStart(ring, mTimes[ring]);
+        }
+    }
+
+    /**
+     * pause the countdown of the ring
+     *
+     * @param ring index of the ring
+     */
+    public void pauseRing(int ring) {
+        checkRing(ring);
+        if (!mStarted[ring]) {
+            return;
+        }
+        long now = mTickEngine.now();
+        mRemainingMillis[ring] = Math.max(0, mDeadlines[ring] - now);
+        mStarted[ring] = false;
+        scheduleTick(now);
+        if (mRingListeners[ring] != null) {
+            mRingListeners[ring].onRingPause(ring, mTimes[ring]);
+        }
+    }
+
+    /**
+     * whether the countdown of the ring is running
+     *
+     * @param ring index of the ring
+     * @return
+     */
+    public boolean isRingStarted(int ring) {
+        checkRing(ring);
+        return mStarted[ring];
+    }
+
+    /**
+     * set the color of the remaining time arc of the ring
+     *
+     * @param ring  index of the ring
+     * @param color color
+     */
+    public void setRingColor(int ring, int color) {
+        checkRing(ring);
+        if (mColors[ring] != color) {
+            mColors[ring] = color;
+            invalidateRing(ring);
+        }
+    }
+
+    /**
+     * set the time of one turn of the rings in seconds, default is 3600
+     *
+     * @param seconds range in seconds, e.g. 60 for rings of a minute
+     */
+    public void setDialRange(int seconds) {
+        if (seconds > 0 && seconds * 1000L != mTurnMillis) {
+            mTurnMillis = seconds * 1000L;
+            long now = mTickEngine.now();
+            for (int i = 0; i < mRingCount; i++) {
+                long remaining = mStarted[i] ? Math.max(0, mDeadlines[i] - now) : mRemainingMillis[i];
+                mRadians[i] = CountdownEngine.turnRadianOf(remaining, mTurnMillis);
+            }
+            invalidate();
+        }
+    }
+
+    /**
+     * get the time of one turn of the rings in seconds
+     *
+     * @return
+     */
+    public int getDialRange() {
+        return (int) (mTurnMillis / 1000);
+    }
+
+    /**
+     * set the listener of the ring
+     *
+     * @param ring     index of the ring
+     * @param listener listener, or null
+     */
+    public void setRingListener(int ring, RingListener listener) {
+        checkRing(ring);
+        mRingListeners[ring] = listener;
+    }
+
+    /**
+     * set the engine that delivers the ticks, running rings continue on the new engine
+     *
+     * @param tickEngine tick engine
+     */
+    public void setTickEngine(TickEngine tickEngine) {
+        if (tickEngine == null || tickEngine == mTickEngine) {
+            return;
+        }
+        long oldNow = mTickEngine.now();
+        long newNow = tickEngine.now();
+        mTickEngine.stop(mTickCallback);
+        for (int i = 0; i < mRingCount; i++) {
+            if (mStarted[i]) {
+                mDeadlines[i] = newNow + Math.max(0, mDeadlines[i] - oldNow);
+            }
+        }
+        mTickEngine = tickEngine;
+        scheduleTick(newNow);
+    }
+
+    public interface RingListener {
+        /**
+         * launch ring start event
+         *
+         * @param ring
+         * @param time
+         */
+        void onRingStart(int ring, int time);
+
+        /**
+         * launch ring pause event
+         *
+         * @param ring
+         * @param time
+         */
+        void onRingPause(int ring, int time);
+
+        /**
+         * launch ring timing value changed event
+         *
+         * @param ring
+         * @param time
+         */
+        void onRingTimingValueChanged(int ring, int time);
+
+        /**
+         * launch ring stop event
+         *
+         * @param ring
+         */
+        void onRingStop(int ring);
+    }
+}
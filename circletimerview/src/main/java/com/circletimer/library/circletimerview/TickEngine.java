@@ -0,0 +1,253 @@
+package com.circletimer.library.circletimerview;
+
+/**
+ * Delivers timer ticks at requested points in time.
+ * <p>
+ * A callback is started with the time of its first tick and returns the time of its next tick from
+ * {@link Callback#onTick(long)}, so a countdown can always aim at the next change of its displayed value computed
+ * from a fixed deadline instead of counting ticks. All registered callbacks are served by a single wakeup, the
+ * subclass decides how that wakeup is delivered and which clock is used.
+ * <p>
+ * With an alignment set, every tick time is rounded up to a multiple of the alignment, so that callbacks with
+ * unrelated deadlines share their wakeups. Ticks may then arrive up to one alignment late, except the tick at the
+ * deadline of a {@link DeadlineCallback}, which is never delayed past the deadline.
+ * <p>
+ * An engine is also the {@link CountdownEngine.Clock} of the countdowns whose deadlines it serves.
+ * <p>
+ * An engine is not thread safe, use it from the thread its ticks are delivered on.
+ */
+public abstract class TickEngine implements CountdownEngine.Clock {
+
+    /**
+     * Returned from {@link Callback#onTick(long)} to stop receiving ticks
+     */
+    public static final long STOP = -1;
+
+    public interface Callback {
+        /**
+         * launch timer tick event
+         *
+         * @param now current time of the engine clock
+         * @return time of the next tick, or {@link #STOP}
+         */
+        long onTick(long now);
+    }
+
+    /**
+     * Callback of a countdown, aligned ticks are not delayed past its deadline so that the countdown ends on time
+     */
+    public interface DeadlineCallback extends Callback {
+        /**
+         * @return the deadline on the engine clock, or a negative value when there is none
+         */
+        long getDeadline();
+    }
+
+    // Registered callbacks and the time of their next tick, a null callback is a removed entry
+    private Callback[] mCallbacks = new Callback[4];
+    private long[] mTickTimes = new long[4];
+    private int mSize;
+    private boolean mDispatching;
+    private long mWakeupTime = Long.MAX_VALUE;
+    private long mAlignment;
+
+    /**
+     * @return current time in milliseconds of the clock the tick times refer to
+     */
+    public abstract long now();
+
+    /**
+     * Request a call to {@link #dispatchTicks()} at the given time, replacing the previous request
+     */
+    protected abstract void scheduleWakeup(long time);
+
+    /**
+     * Cancel the pending wakeup
+     */
+    protected abstract void cancelWakeup();
+
+    /**
+     * Round every tick time up to a multiple of the alignment, 0 disables the alignment
+     *
+     * @param alignment alignment in milliseconds
+     */
+    public void setAlignment(long alignment) {
+        mAlignment = Math.max(0, alignment);
+    }
+
+    public long getAlignment() {
+        return mAlignment;
+    }
+
+    /**
+     * Start delivering ticks to the callback, or move its next tick if it is already running
+     *
+     * @param callback callback
+     * @param tickTime time of the first tick
+     */
+    public void start(Callback callback, long tickTime) {
+        tickTime = align(callback, tickTime);
+        int index = indexOf(callback);
+        if (index < 0) {
+            if (mSize == mCallbacks.length) {
+                grow();
+            }
+            index = mSize++;
+            mCallbacks[index] = callback;
+            mTickTimes[index] = Long.MAX_VALUE;
+        }
+        long previous = mTickTimes[index];
+        mTickTimes[index] = tickTime;
+        if (!mDispatching) {
+            if (tickTime < mWakeupTime) {
+                mWakeupTime = tickTime;
+                scheduleWakeup(tickTime);
+            } else if (previous == mWakeupTime && tickTime > previous) {
+                // The wakeup was for this callback only maybe, move it to the earliest tick
+                updateWakeup();
+            }
+        }
+    }
+
+    /**
+     * Stop delivering ticks to the callback
+     *
+     * @param callback callback
+     */
+    public void stop(Callback callback) {
+        int index = indexOf(callback);
+        if (index < 0) {
+            return;
+        }
+        if (mDispatching) {
+            // Removed entries are compacted when the dispatch is done
+            mCallbacks[index] = null;
+        } else {
+            removeAt(index);
+            updateWakeup();
+        }
+    }
+
+    /**
+     * @return whether the callback is receiving ticks
+     */
+    public boolean isRunning(Callback callback) {
+        return indexOf(callback) >= 0;
+    }
+
+    /**
+     * @return time of the next tick of the callback after the alignment, during its tick the time of that tick, or
+     * {@link #STOP} when it is not running
+     */
+    public long getTickTime(Callback callback) {
+        int index = indexOf(callback);
+        return index >= 0 ? mTickTimes[index] : STOP;
+    }
+
+    /**
+     * @return number of callbacks receiving ticks
+     */
+    public int getRunningCount() {
+        int count = 0;
+        for (int i = 0; i < mSize; i++) {
+            if (mCallbacks[i] != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Deliver the ticks that are due and schedule the next wakeup, called by the subclass when the wakeup fires
+     */
+    protected void dispatchTicks() {
+        long now = now();
+        mDispatching = true;
+        try {
+            // Callbacks started during the dispatch are appended and checked in the same pass
+            for (int i = 0; i < mSize; i++) {
+                Callback callback = mCallbacks[i];
+                if (callback != null && mTickTimes[i] <= now) {
+                    long next = callback.onTick(now);
+                    if (mCallbacks[i] == callback) {
+                        if (next == STOP) {
+                            mCallbacks[i] = null;
+                        } else {
+                            mTickTimes[i] = align(callback, next);
+                        }
+                    }
+                }
+            }
+        } finally {
+            mDispatching = false;
+            compact();
+            mWakeupTime = Long.MAX_VALUE;
+            updateWakeup();
+        }
+    }
+
+    private long align(Callback callback, long time) {
+        if (mAlignment <= 0 || time <= 0) {
+            return time;
+        }
+        long remainder = time % mAlignment;
+        long aligned = remainder == 0 ? time : time - remainder + mAlignment;
+        if (callback instanceof DeadlineCallback) {
+            long deadline = ((DeadlineCallback) callback).getDeadline();
+            if (deadline >= 0 && aligned > deadline) {
+                // The deadline itself, or a catch up after it, is not delayed
+                return Math.max(time, deadline);
+            }
+        }
+        return aligned;
+    }
+
+    private void updateWakeup() {
+        long earliest = Long.MAX_VALUE;
+        for (int i = 0; i < mSize; i++) {
+            earliest = Math.min(earliest, mTickTimes[i]);
+        }
+        if (earliest == Long.MAX_VALUE) {
+            if (mWakeupTime != Long.MAX_VALUE) {
+                cancelWakeup();
+            }
+        } else if (earliest != mWakeupTime) {
+            scheduleWakeup(earliest);
+        }
+        mWakeupTime = earliest;
+    }
+
+    private int indexOf(Callback callback) {
+        for (int i = 0; i < mSize; i++) {
+            if (mCallbacks[i] == callback) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void removeAt(int index) {
+        mSize--;
+        mCallbacks[index] = mCallbacks[mSize];
+        mTickTimes[index] = mTickTimes[mSize];
+        mCallbacks[mSize] = null;
+    }
+
+    private void compact() {
+        for (int i = mSize - 1; i >= 0; i--) {
+            if (mCallbacks[i] == null) {
+                removeAt(i);
+            }
+        }
+    }
+
+    private void grow() {
+        int capacity = mCallbacks.length * 2;
+        Callback[] callbacks = new Callback[capacity];
+        long[] tickTimes = new long[capacity];
+        System.arraycopy(mCallbacks, 0, callbacks, 0, mSize);
+        System.arraycopy(mTickTimes, 0, tickTimes, 0, mSize);
+        mCallbacks = callbacks;
+        mTickTimes = tickTimes;
+    }
+}
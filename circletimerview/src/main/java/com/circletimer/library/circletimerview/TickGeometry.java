@@ -0,0 +1,122 @@
+package com.circletimer.library.circletimerview;
+
+/**
+ * Precomputed end points of the dial ticks.
+ * <p>
+ * The points are stored in tick order as x0, y0, x1, y1 so that any contiguous range of ticks can be passed to
+ * {@link android.graphics.Canvas#drawLines(float[], int, int, android.graphics.Paint)} in one call. Tick 0 sits at 12
+ * o'clock and the ticks go clockwise, every quarter of the dial gets a long tick.
+ */
+final class TickGeometry {
+
+    private float[] mPoints = new float[0];
+    private int mTickCount;
+
+    // Last input, used to skip recomputing an unchanged layout
+    private float mCx;
+    private float mCy;
+    private float mOuterRadius;
+    private float mLineLength;
+    private float mLongerLineLength;
+
+    /**
+     * Recompute the end points, does nothing when the input did not change
+     *
+     * @param tickCount        number of ticks on the whole dial
+     * @param cx               x of the dial center
+     * @param cy               y of the dial center
+     * @param outerRadius      distance from the center to the outer end of every tick
+     * @param lineLength       length of a normal tick
+     * @param longerLineLength length of a quarter tick
+     */
+    void update(int tickCount, float cx, float cy, float outerRadius, float lineLength, float longerLineLength) {
+        if (tickCount == mTickCount && cx == mCx && cy == mCy && outerRadius == mOuterRadius
+                && lineLength == mLineLength && longerLineLength == mLongerLineLength) {
+            return;
+        }
+        mTickCount = tickCount;
+        mCx = cx;
+        mCy = cy;
+        mOuterRadius = outerRadius;
+        mLineLength = lineLength;
+        mLongerLineLength = longerLineLength;
+
+        if (mPoints.length != tickCount * 4) {
+            mPoints = new float[tickCount * 4];
+        }
+        for (int i = 0; i < tickCount; i++) {
+            double angle = 2 * Math.PI * i / tickCount;
+            float sin = (float) Math.sin(angle);
+            float cos = (float) Math.cos(angle);
+            float innerRadius = outerRadius - (isLongTick(i) ? longerLineLength : lineLength);
+            mPoints[i * 4] = cx + outerRadius * sin;
+            mPoints[i * 4 + 1] = cy - outerRadius * cos;
+            mPoints[i * 4 + 2] = cx + innerRadius * sin;
+            mPoints[i * 4 + 3] = cy - innerRadius * cos;
+        }
+    }
+
+    boolean isLongTick(int i) {
+        return i * 4 % mTickCount == 0;
+    }
+
+    int getTickCount() {
+        return mTickCount;
+    }
+
+    /**
+     * @return the end points, 4 floats per tick
+     */
+    float[] getPoints() {
+        return mPoints;
+    }
+
+    /**
+     * Compute the bounding box of the ticks [from, to)
+     *
+     * @param out receives left, top, right, bottom, untouched when the range is empty
+     * @return false when the range is empty
+     */
+    boolean getBounds(int from, int to, float[] out) {
+        if (from < 0) {
+            from = 0;
+        }
+        if (to > mTickCount) {
+            to = mTickCount;
+        }
+        if (to <= from) {
+            return false;
+        }
+        float left = Float.MAX_VALUE;
+        float top = Float.MAX_VALUE;
+        float right = -Float.MAX_VALUE;
+        float bottom = -Float.MAX_VALUE;
+        for (int i = from * 4; i < to * 4; i += 2) {
+            float x = mPoints[i];
+            float y = mPoints[i + 1];
+            left = Math.min(left, x);
+            right = Math.max(right, x);
+            top = Math.min(top, y);
+            bottom = Math.max(bottom, y);
+        }
+        out[0] = left;
+        out[1] = top;
+        out[2] = right;
+        out[3] = bottom;
+        return true;
+    }
+
+    /**
+     * Count the ticks that are highlighted for the given radian, these are always the first ticks of the dial.
+     *
+     * @param radian current radian, 0 is 12 o'clock
+     * @return number of ticks whose angle is less than or equal to the radian
+     */
+    int getHighlightedCount(float radian) {
+        if (radian < 0 || mTickCount == 0) {
+            return 0;
+        }
+        int count = (int) (Math.toDegrees(radian) * mTickCount / 360) + 1;
+        return count > mTickCount ? mTickCount : count;
+    }
+}
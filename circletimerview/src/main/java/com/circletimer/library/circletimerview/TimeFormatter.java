@@ -0,0 +1,135 @@
+package com.circletimer.library.circletimerview;
+
+/**
+ * Formats the timer text into a reusable char array so that drawing it does not allocate.
+ */
+final class TimeFormatter {
+
+    /**
+     * Big enough for any value of a non negative int of seconds in every format
+     */
+    static final int MAX_LENGTH = 16;
+
+    private TimeFormatter() {
+        /* cannot be instantiated */
+        throw new UnsupportedOperationException("cannot be instantiated");
+    }
+
+    /**
+     * Write the time in one of the {@link CircleTimerView} TIME_FORMAT constants. The remaining time is rounded up
+     * to whole seconds like the countdown, or to tenths in the tenths format. HH:MM then drops the seconds, so it
+     * shows 00:00 during the last minute.
+     *
+     * @param millis time in milliseconds, negative values are formatted as 0
+     * @param format time format
+     * @param out    buffer of at least {@link #MAX_LENGTH} chars
+     * @return number of chars written
+     */
+    static int format(long millis, int format, char[] out) {
+        switch (format) {
+            case CircleTimerView.TIME_FORMAT_MINUTE_SECOND: {
+                int seconds = secondsOf(millis);
+                int length = writePadded(seconds / 60, out, 0);
+                out[length++] = ':';
+                return writePadded(seconds % 60, out, length);
+            }
+            case CircleTimerView.TIME_FORMAT_HOUR_MINUTE_SECOND: {
+                int seconds = secondsOf(millis);
+                int length = formatHourMinute(seconds, out);
+                out[length++] = ':';
+                return writePadded(seconds % 60, out, length);
+            }
+            case CircleTimerView.TIME_FORMAT_MINUTE_SECOND_TENTHS: {
+                long tenths = Math.min(roundUp(millis, 100), Integer.MAX_VALUE * 10L);
+                int seconds = (int) (tenths / 10);
+                int length = writePadded(seconds / 60, out, 0);
+                out[length++] = ':';
+                length = writePadded(seconds % 60, out, length);
+                out[length++] = '.';
+                out[length++] = (char) ('0' + tenths % 10);
+                return length;
+            }
+            default:
+                return formatHourMinute(secondsOf(millis), out);
+        }
+    }
+
+    /**
+     * Value the text of the format is made of, two times with the same value look the same
+     *
+     * @param millis time in milliseconds
+     * @param format time format
+     * @return value in the smallest unit shown by the format
+     */
+    static long displayedValue(long millis, int format) {
+        switch (format) {
+            case CircleTimerView.TIME_FORMAT_MINUTE_SECOND:
+            case CircleTimerView.TIME_FORMAT_HOUR_MINUTE_SECOND:
+                return secondsOf(millis);
+            case CircleTimerView.TIME_FORMAT_MINUTE_SECOND_TENTHS:
+                return roundUp(millis, 100);
+            default:
+                return secondsOf(millis) / 60;
+        }
+    }
+
+    /**
+     * Write the time as HH:MM, hours and minutes are zero padded to two digits
+     *
+     * @param seconds time in seconds, negative values are formatted as 0
+     * @param out     buffer of at least {@link #MAX_LENGTH} chars
+     * @return number of chars written
+     */
+    static int formatHourMinute(int seconds, char[] out) {
+        if (seconds < 0) {
+            seconds = 0;
+        }
+        int hour = seconds / 3600;
+        int minute = (seconds - hour * 3600) / 60;
+        int length = writePadded(hour, out, 0);
+        out[length++] = ':';
+        return writePadded(minute, out, length);
+    }
+
+    /**
+     * Format a dial label, one decimal is shown when the value is not whole
+     *
+     * @param tenths value in tenths
+     * @return the label
+     */
+    static String formatLabel(long tenths) {
+        return tenths % 10 == 0 ? String.valueOf(tenths / 10) : (tenths / 10) + "." + (tenths % 10);
+    }
+
+    /**
+     * Write a non negative value with at least two digits
+     *
+     * @return index after the last written char
+     */
+    static int writePadded(int value, char[] out, int offset) {
+        int digits = 2;
+        for (int v = value / 100; v > 0; v /= 10) {
+            digits++;
+        }
+        int end = offset + digits;
+        for (int i = end - 1; i >= offset; i--) {
+            out[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        return end;
+    }
+
+    private static int secondsOf(long millis) {
+        return (int) Math.min(roundUp(millis, 1000), Integer.MAX_VALUE);
+    }
+
+    /**
+     * @return millis in units rounded up, 0 for negative values. Does not overflow near Long.MAX_VALUE
+     */
+    private static long roundUp(long millis, long unit) {
+        if (millis <= 0) {
+            return 0;
+        }
+        return millis / unit + (millis % unit == 0 ? 0 : 1);
+    }
+}
@@ -0,0 +1,354 @@
+package com.circletimer.library.circletimerview;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Delivers the timer events of a view to any number of {@link CircleTimerView.CircleTimerListener}s.
+ * <p>
+ * The subscribers are kept in a copy-on-write array, so publishing an event reads one volatile field and never
+ * locks against subscribing. A subscriber is either called inline on the publishing thread, or gets its events
+ * through its own bounded queue drained on an {@link Executor}. Queued events are stored as primitive pairs in a
+ * ring buffer, so publishing does not allocate. With coalescing, a value event replaces a queued value event of the
+ * same kind instead of taking a new slot. When the queue is full the oldest waiting value event is dropped to make
+ * room. Start, pause, stop and set value changed events are never dropped, the queue grows for them when it holds
+ * nothing else, so a slow subscriber never blocks the publisher and still sees every state change. A listener that
+ * throws gets the rest of its queue in a new drain, and a queue whose drain the executor rejected is kept and drained
+ * on the next event.
+ */
+public class TimerEventBus implements CircleTimerView.CircleTimerListener {
+
+    /**
+     * Default queue capacity of a subscriber with an executor
+     */
+    public static final int DEFAULT_CAPACITY = 16;
+
+    static final int EVENT_STOP = 0;
+    static final int EVENT_START = 1;
+    static final int EVENT_PAUSE = 2;
+    static final int EVENT_TIMING_VALUE_CHANGED = 3;
+    static final int EVENT_SET_VALUE_CHANGED = 4;
+    static final int EVENT_SET_VALUE_CHANGE = 5;
+
+    private static final Subscriber[] EMPTY = new Subscriber[0];
+
+    private volatile Subscriber[] mSubscribers = EMPTY;
+    private final AtomicLong mDroppedCount = new AtomicLong();
+
+    /**
+     * add a subscriber that is called inline on the publishing thread
+     *
+     * @param listener listener
+     */
+    public void add(CircleTimerView.CircleTimerListener listener) {
+        add(listener, null, 0, false);
+    }
+
+    /**
+     * add a subscriber that is called on the executor, value events are coalesced
+     *
+     * @param listener listener
+     * @param executor executor
+     */
+    public void add(CircleTimerView.CircleTimerListener listener, Executor executor) {
+        add(listener, executor, DEFAULT_CAPACITY, true);
+    }
+
+    /**
+     * add a subscriber, a listener that is already subscribed is not added again
+     *
+     * @param listener listener
+     * @param executor executor the listener is called on, or null to call it inline
+     * @param capacity number of value events that can wait for the executor
+     * @param coalesce whether a value event replaces a waiting value event of the same kind
+     */
+    public synchronized void add(CircleTimerView.CircleTimerListener listener, Executor executor, int capacity,
+                                 boolean coalesce) {
+        if (listener == null || indexOf(listener) >= 0) {
+            return;
+        }
+        if (executor != null && capacity < 1) {
+            throw new IllegalArgumentException("capacity < 1");
+        }
+        Subscriber[] subscribers = new Subscriber[mSubscribers.length + 1];
+        System.arraycopy(mSubscribers, 0, subscribers, 0, mSubscribers.length);
+        subscribers[mSubscribers.length] = new Subscriber(listener, executor, capacity, coalesce);
+        mSubscribers = subscribers;
+    }
+
+    /**
+     * remove a subscriber, events already queued for it are discarded
+     *
+     * @param listener listener
+     */
+    public synchronized void remove(CircleTimerView.CircleTimerListener listener) {
+        int index = indexOf(listener);
+        if (index < 0) {
+            return;
+        }
+        Subscriber[] subscribers = mSubscribers.length == 1 ? EMPTY : new Subscriber[mSubscribers.length - 1];
+        System.arraycopy(mSubscribers, 0, subscribers, 0, index);
+        System.arraycopy(mSubscribers, index + 1, subscribers, index, mSubscribers.length - index - 1);
+        mSubscribers[index].clear();
+        mSubscribers = subscribers;
+    }
+
+    /**
+     * @return whether there is no subscriber
+     */
+    public boolean isEmpty() {
+        return mSubscribers.length == 0;
+    }
+
+    /**
+     * @return number of value events dropped because the queue of a subscriber was full
+     */
+    public long getDroppedCount() {
+        return mDroppedCount.get();
+    }
+
+    private int indexOf(CircleTimerView.CircleTimerListener listener) {
+        Subscriber[] subscribers = mSubscribers;
+        for (int i = 0; i < subscribers.length; i++) {
+            if (subscribers[i].mListener == listener) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void publish(int type, int value) {
+        Subscriber[] subscribers = mSubscribers;
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.mExecutor == null) {
+                deliver(subscriber.mListener, type, value);
+            } else if (!subscriber.enqueue(type, value)) {
+                mDroppedCount.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * @return whether only the latest value of the event matters, such an event may be coalesced or dropped
+     */
+    static boolean isValueEvent(int type) {
+        return type == EVENT_TIMING_VALUE_CHANGED || type == EVENT_SET_VALUE_CHANGE;
+    }
+
+    static void deliver(CircleTimerView.CircleTimerListener listener, int type, int value) {
+        switch (type) {
+            case EVENT_STOP:
+                listener.onTimerStop();
+                break;
+            case EVENT_START:
+                listener.onTimerStart(value);
+                break;
+            case EVENT_PAUSE:
+                listener.onTimerPause(value);
+                break;
+            case EVENT_TIMING_VALUE_CHANGED:
+                listener.onTimerTimingValueChanged(value);
+                break;
+            case EVENT_SET_VALUE_CHANGED:
+                listener.onTimerSetValueChanged(value);
+                break;
+            case EVENT_SET_VALUE_CHANGE:
+                listener.onTimerSetValueChange(value);
+                break;
+        }
+    }
+
+    @Override
+    public void onTimerStop() {
+        publish(EVENT_STOP, 0);
+    }
+
+    @Override
+    public void onTimerStart(int time) {
+        publish(EVENT_START, time);
+    }
+
+    @Override
+    public void onTimerPause(int time) {
+        publish(EVENT_PAUSE, time);
+    }
+
+    @Override
+    public void onTimerTimingValueChanged(int time) {
+        publish(EVENT_TIMING_VALUE_CHANGED, time);
+    }
+
+    @Override
+    public void onTimerSetValueChanged(int time) {
+        publish(EVENT_SET_VALUE_CHANGED, time);
+    }
+
+    @Override
+    public void onTimerSetValueChange(int time) {
+        publish(EVENT_SET_VALUE_CHANGE, time);
+    }
+
+    /**
+     * A listener and, when it has an executor, its queue of waiting events
+     */
+    private static final class Subscriber implements Runnable {
+
+        final CircleTimerView.CircleTimerListener mListener;
+        final Executor mExecutor;
+        private final boolean mCoalesce;
+
+        // Ring buffer of waiting events, guarded by this
+        private int[] mTypes;
+        private int[] mValues;
+        private int mHead;
+        private int mSize;
+        private boolean mScheduled;
+
+        Subscriber(CircleTimerView.CircleTimerListener listener, Executor executor, int capacity, boolean coalesce) {
+            mListener = listener;
+            mExecutor = executor;
+            mCoalesce = coalesce;
+            mTypes = new int[executor == null ? 0 : capacity];
+            mValues = new int[executor == null ? 0 : capacity];
+        }
+
+        /**
+         * @return false when the event or a waiting value event was dropped
+         */
+        boolean enqueue(int type, int value) {
+            boolean dropped = false;
+            synchronized (this) {
+                if (mCoalesce && isValueEvent(type)) {
+                    // Only the latest value matters, as long as no other event is queued behind it
+                    if (mSize > 0) {
+                        int last = (mHead + mSize - 1) % mTypes.length;
+                        if (mTypes[last] == type) {
+                            mValues[last] = value;
+                            return true;
+                        }
+                    }
+                }
+                if (mSize == mTypes.length) {
+                    if (evictValueEvent()) {
+                        dropped = true;
+                    } else if (isValueEvent(type)) {
+                        // Only state events are waiting
+                        return false;
+                    } else {
+                        grow();
+                    }
+                }
+                int tail = (mHead + mSize) % mTypes.length;
+                mTypes[tail] = type;
+                mValues[tail] = value;
+                mSize++;
+                if (mScheduled) {
+                    return !dropped;
+                }
+                mScheduled = true;
+            }
+            execute();
+            return !dropped;
+        }
+
+        /**
+         * Hand a drain to the executor. When it is rejected the events are kept, the next event tries again
+         */
+        private void execute() {
+            try {
+                mExecutor.execute(this);
+            } catch (RejectedExecutionException e) {
+                synchronized (this) {
+                    mScheduled = false;
+                }
+            }
+        }
+
+        /**
+         * Remove the oldest waiting value event, the events before it move up one slot
+         *
+         * @return false when only state events are waiting
+         */
+        private boolean evictValueEvent() {
+            int length = mTypes.length;
+            for (int i = 0; i < mSize; i++) {
+                if (isValueEvent(mTypes[(mHead + i) % length])) {
+                    for (int j = i; j > 0; j--) {
+                        int to = (mHead + j) % length;
+                        int from = (mHead + j - 1) % length;
+                        mTypes[to] = mTypes[from];
+                        mValues[to] = mValues[from];
+                    }
+                    mHead = (mHead + 1) % length;
+                    mSize--;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Double the queue, only for state events so it stays bounded by the state changes the subscriber is behind
+         */
+        private void grow() {
+            int length = mTypes.length;
+            int[] types = new int[length * 2];
+            int[] values = new int[length * 2];
+            for (int i = 0; i < mSize; i++) {
+                types[i] = mTypes[(mHead + i) % length];
+                values[i] = mValues[(mHead + i) % length];
+            }
+            mTypes = types;
+            mValues = values;
+            mHead = 0;
+        }
+
+        void clear() {
+            synchronized (this) {
+                mSize = 0;
+                mScheduled = false;
+            }
+        }
+
+        @Override
+        public void run() {
+            boolean drained = false;
+            try {
+                drain();
+                drained = true;
+            } finally {
+                if (!drained) {
+                    // The listener threw, the exception goes to the executor and a new drain takes the rest
+                    boolean rest;
+                    synchronized (this) {
+                        rest = mSize > 0;
+                        mScheduled = rest;
+                    }
+                    if (rest) {
+                        execute();
+                    }
+                }
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                int type;
+                int value;
+                synchronized (this) {
+                    if (mSize == 0) {
+                        mScheduled = false;
+                        return;
+                    }
+                    type = mTypes[mHead];
+                    value = mValues[mHead];
+                    mHead = (mHead + 1) % mTypes.length;
+                    mSize--;
+                }
+                // Called without holding the lock, the publisher can keep queueing meanwhile
+                deliver(mListener, type, value);
+            }
+        }
+    }
+}
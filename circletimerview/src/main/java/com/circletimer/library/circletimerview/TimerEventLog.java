@@ -0,0 +1,213 @@
+package com.circletimer.library.circletimerview;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Records the timer events of many timers in the order they are delivered, with the time of a clock.
+ * <p>
+ * Events are kept in parallel primitive arrays, 17 bytes per event, so a log of millions of events stays small and
+ * recording does not allocate once the arrays have grown. Two runs of the same scenario on a
+ * {@link VirtualTickEngine} produce equal logs. The log is not thread safe, record from the thread the events are
+ * delivered on.
+ */
+public final class TimerEventLog {
+
+    /**
+     * Event types, named after the {@link CircleTimerView.CircleTimerListener} methods
+     */
+    public static final int EVENT_STOP = TimerEventBus.EVENT_STOP;
+    public static final int EVENT_START = TimerEventBus.EVENT_START;
+    public static final int EVENT_PAUSE = TimerEventBus.EVENT_PAUSE;
+    public static final int EVENT_TIMING_VALUE_CHANGED = TimerEventBus.EVENT_TIMING_VALUE_CHANGED;
+    public static final int EVENT_SET_VALUE_CHANGED = TimerEventBus.EVENT_SET_VALUE_CHANGED;
+    public static final int EVENT_SET_VALUE_CHANGE = TimerEventBus.EVENT_SET_VALUE_CHANGE;
+
+    private static final String[] EVENT_NAMES = {"stop", "start", "pause", "timingValueChanged", "setValueChanged",
+            "setValueChange"};
+
+    private final CountdownEngine.Clock mClock;
+    private long[] mTimes = new long[64];
+    private int[] mTimers = new int[64];
+    private byte[] mTypes = new byte[64];
+    private int[] mValues = new int[64];
+    private int mSize;
+
+    /**
+     * @param clock clock the events are stamped with, e.g. the tick engine of the timers
+     */
+    public TimerEventLog(CountdownEngine.Clock clock) {
+        if (clock == null) {
+            throw new IllegalArgumentException("clock == null");
+        }
+        mClock = clock;
+    }
+
+    /**
+     * Create a listener that records the events of one timer
+     *
+     * @param timer id of the timer in the log
+     * @return the listener, e.g. for {@link CircleTimerView#addCircleTimerListener(CircleTimerView.CircleTimerListener)}
+     */
+    public CircleTimerView.CircleTimerListener listener(final int timer) {
+        return new CircleTimerView.CircleTimerListener() {
+            @Override
+            public void onTimerStop() {
+                record(timer, EVENT_STOP, 0);
+            }
+
+            @Override
+            public void onTimerStart(int time) {
+                record(timer, EVENT_START, time);
+            }
+
+            @Override
+            public void onTimerPause(int time) {
+                record(timer, EVENT_PAUSE, time);
+            }
+
+            @Override
+            public void onTimerTimingValueChanged(int time) {
+                record(timer, EVENT_TIMING_VALUE_CHANGED, time);
+            }
+
+            @Override
+            public void onTimerSetValueChanged(int time) {
+                record(timer, EVENT_SET_VALUE_CHANGED, time);
+            }
+
+            @Override
+            public void onTimerSetValueChange(int time) {
+                record(timer, EVENT_SET_VALUE_CHANGE, time);
+            }
+        };
+    }
+
+    /**
+     * Append an event stamped with the current time of the clock
+     */
+    public void record(int timer, int type, int value) {
+        if (mSize == mTimes.length) {
+            grow();
+        }
+        mTimes[mSize] = mClock.now();
+        mTimers[mSize] = timer;
+        mTypes[mSize] = (byte) type;
+        mValues[mSize] = value;
+        mSize++;
+    }
+
+    public int size() {
+        return mSize;
+    }
+
+    public long getTime(int index) {
+        checkIndex(index);
+        return mTimes[index];
+    }
+
+    public int getTimer(int index) {
+        checkIndex(index);
+        return mTimers[index];
+    }
+
+    public int getType(int index) {
+        checkIndex(index);
+        return mTypes[index];
+    }
+
+    public int getValue(int index) {
+        checkIndex(index);
+        return mValues[index];
+    }
+
+    public void clear() {
+        mSize = 0;
+    }
+
+    /**
+     * Write the events as big endian records of time, timer, type and value, e.g. to keep the log of a failed run
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(mSize);
+        for (int i = 0; i < mSize; i++) {
+            data.writeLong(mTimes[i]);
+            data.writeInt(mTimers[i]);
+            data.writeByte(mTypes[i]);
+            data.writeInt(mValues[i]);
+        }
+        data.flush();
+    }
+
+    /**
+     * @return the event as text, e.g. "3600000 timer 7 timingValueChanged 59"
+     */
+    public String toString(int index) {
+        checkIndex(index);
+        return mTimes[index] + " timer " + mTimers[index] + " " + getEventName(mTypes[index]) + " " + mValues[index];
+    }
+
+    public static String getEventName(int type) {
+        return type >= 0 && type < EVENT_NAMES.length ? EVENT_NAMES[type] : String.valueOf(type);
+    }
+
+    /**
+     * @return whether both logs hold the same events in the same order
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof TimerEventLog)) {
+            return false;
+        }
+        TimerEventLog log = (TimerEventLog) o;
+        if (mSize != log.mSize) {
+            return false;
+        }
+        for (int i = 0; i < mSize; i++) {
+            if (mTimes[i] != log.mTimes[i] || mTimers[i] != log.mTimers[i] || mTypes[i] != log.mTypes[i]
+                    || mValues[i] != log.mValues[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = mSize;
+        for (int i = 0; i < mSize; i++) {
+            result = 31 * result + (int) (mTimes[i] ^ (mTimes[i] >>> 32));
+            result = 31 * result + mTimers[i];
+            result = 31 * result + mTypes[i];
+            result = 31 * result + mValues[i];
+        }
+        return result;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= mSize) {
+            throw new IndexOutOfBoundsException("index " + index + ", size " + mSize);
+        }
+    }
+
+    private void grow() {
+        int capacity = mTimes.length * 2;
+        long[] times = new long[capacity];
+        int[] timers = new int[capacity];
+        byte[] types = new byte[capacity];
+        int[] values = new int[capacity];
+        System.arraycopy(mTimes, 0, times, 0, mSize);
+        System.arraycopy(mTimers, 0, timers, 0, mSize);
+        System.arraycopy(mTypes, 0, types, 0, mSize);
+        System.arraycopy(mValues, 0, values, 0, mSize);
+        mTimes = times;
+        mTimers = timers;
+        mTypes = types;
+        mValues = values;
+    }
+}
@@ -0,0 +1,50 @@
+package com.circletimer.library.circletimerview;
+
+/**
+ * Receives per frame measurements of a {@link CircleTimerView}.
+ * <p>
+ * No measurement is taken while no metrics are set on the view. The callbacks run on the UI thread inside the draw
+ * and tick paths, an implementation must return quickly and should not allocate, see {@link HistogramTimerMetrics}.
+ */
+public interface TimerMetrics {
+
+    /**
+     * Invalidation reasons
+     */
+    int INVALIDATE_STATE = 0;
+    int INVALIDATE_TICK = 1;
+    int INVALIDATE_TOUCH = 2;
+    int INVALIDATE_SWEEP = 3;
+    int INVALIDATE_REASON_COUNT = 4;
+
+    /**
+     * launch frame drawn event
+     *
+     * @param durationNanos time spent in onDraw
+     * @param drawOps       number of canvas calls issued
+     */
+    void onFrameDrawn(long durationNanos, int drawOps);
+
+    /**
+     * launch invalidation event
+     *
+     * @param reason  one of the INVALIDATE constants
+     * @param skipped true when nothing visible changed and no redraw was requested
+     */
+    void onInvalidate(int reason, boolean skipped);
+
+    /**
+     * launch timer tick event
+     *
+     * @param scheduledTime time the tick was scheduled for once aligned by the tick engine, on its clock
+     * @param actualTime    time the tick was delivered
+     */
+    void onTick(long scheduledTime, long actualTime);
+
+    /**
+     * launch touch to frame event, sent by the first frame drawn after a drag moved the dial
+     *
+     * @param latencyMillis time between the touch event and the end of the frame
+     */
+    void onTouchToFrame(long latencyMillis);
+}
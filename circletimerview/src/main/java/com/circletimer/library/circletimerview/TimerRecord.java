@@ -0,0 +1,138 @@
+package com.circletimer.library.circletimerview;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Compact binary record of a {@link CountdownEngine}, small enough to be written on every state change.
+ * <p>
+ * The record holds the engine clock, the wall clock and the boot count of the device at the time it was written, the
+ * remaining time at that moment and whether the countdown was running. A running countdown is restored on its
+ * original deadline, so it has kept counting down while the process was gone. When the engine clock was restarted in
+ * between (the device rebooted, {@link android.os.SystemClock#elapsedRealtime()} starts again from 0) the elapsed
+ * time is taken from the wall clock instead. A reboot is told by a changed boot count. When the boot count is not
+ * known, it is told by an engine clock behind the saved one, or by a wall clock gap since the record that is longer
+ * than the whole engine clock and does not match the engine clock gap. Only a wall clock set forward by more than the
+ * time since boot looks the same, small corrections within {@link #WALL_CLOCK_TOLERANCE} are never taken for a
+ * reboot.
+ */
+public final class TimerRecord {
+
+    /**
+     * Size of a record in bytes
+     */
+    public static final int SIZE = 30;
+
+    /**
+     * Boot count when the device does not tell it
+     */
+    public static final int UNKNOWN_BOOT_COUNT = -1;
+
+    /**
+     * Difference between the wall clock and the engine clock gaps that is still taken for a wall clock correction
+     * when the boot count is not known
+     */
+    public static final long WALL_CLOCK_TOLERANCE = 60 * 1000;
+
+    private static final byte VERSION = 2;
+    private static final int FLAG_RUNNING = 1;
+
+    // Records of version 1 have no boot count, they are still read
+    private static final byte VERSION_1 = 1;
+    private static final int SIZE_1 = 26;
+
+    private TimerRecord() {
+    }
+
+    /**
+     * Write the current state of the engine
+     *
+     * @param engine   engine
+     * @param wallTime current wall clock time, {@link System#currentTimeMillis()}
+     * @return the record
+     */
+    public static byte[] write(CountdownEngine engine, long wallTime) {
+        return write(engine, wallTime, UNKNOWN_BOOT_COUNT);
+    }
+
+    /**
+     * Write the current state of the engine
+     *
+     * @param engine    engine
+     * @param wallTime  current wall clock time, {@link System#currentTimeMillis()}
+     * @param bootCount boot count of the device, or {@link #UNKNOWN_BOOT_COUNT}
+     * @return the record
+     */
+    public static byte[] write(CountdownEngine engine, long wallTime, int bootCount) {
+        TimerState state = engine.snapshot();
+        return ByteBuffer.allocate(SIZE)
+                .put(VERSION)
+                .put((byte) (state.isRunning() ? FLAG_RUNNING : 0))
+                .putLong(state.getTime())
+                .putLong(wallTime)
+                .putLong(state.getRemainingMillis())
+                .putInt(bootCount)
+                .array();
+    }
+
+    /**
+     * Restore the engine from a record, reconciling a running countdown with the time that passed since it was written
+     *
+     * @param record   record from {@link #write(CountdownEngine, long)}
+     * @param engine   engine
+     * @param wallTime current wall clock time, {@link System#currentTimeMillis()}
+     * @return false when the record is not valid, the engine is then left unchanged
+     */
+    public static boolean read(byte[] record, CountdownEngine engine, long wallTime) {
+        return read(record, engine, wallTime, UNKNOWN_BOOT_COUNT);
+    }
+
+    /**
+     * Restore the engine from a record, reconciling a running countdown with the time that passed since it was written
+     *
+     * @param record    record from {@link #write(CountdownEngine, long, int)}
+     * @param engine    engine
+     * @param wallTime  current wall clock time, {@link System#currentTimeMillis()}
+     * @param bootCount boot count of the device, or {@link #UNKNOWN_BOOT_COUNT}
+     * @return false when the record is not valid, the engine is then left unchanged
+     */
+    public static boolean read(byte[] record, CountdownEngine engine, long wallTime, int bootCount) {
+        if (record == null || (record.length != SIZE && record.length != SIZE_1)) {
+            return false;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(record);
+        if (buffer.get() != (record.length == SIZE ? VERSION : VERSION_1)) {
+            return false;
+        }
+        boolean running = (buffer.get() & FLAG_RUNNING) != 0;
+        long savedTime = buffer.getLong();
+        long savedWallTime = buffer.getLong();
+        long remainingMillis = buffer.getLong();
+        int savedBootCount = record.length == SIZE ? buffer.getInt() : UNKNOWN_BOOT_COUNT;
+        if (remainingMillis < 0) {
+            return false;
+        }
+        if (!running) {
+            engine.restore(false, 0, remainingMillis);
+            return true;
+        }
+        long now = engine.getClock().now();
+        long wallElapsed = Math.max(0, wallTime - savedWallTime);
+        boolean restarted;
+        if (bootCount != UNKNOWN_BOOT_COUNT && savedBootCount != UNKNOWN_BOOT_COUNT) {
+            restarted = bootCount != savedBootCount;
+        } else {
+            // The engine clock went back, or the whole engine clock fits in the wall clock gap, which only a boot
+            // after the record explains
+            restarted = now < savedTime
+                    || (wallElapsed > now && wallElapsed - (now - savedTime) > WALL_CLOCK_TOLERANCE);
+        }
+        long deadline;
+        if (!restarted) {
+            deadline = savedTime + remainingMillis;
+        } else {
+            deadline = now + Math.max(0, remainingMillis - wallElapsed);
+        }
+        engine.restore(true, deadline, 0);
+        return true;
+    }
+}
@@ -0,0 +1,75 @@
+package com.circletimer.library.circletimerview;
+
+/**
+ * Immutable snapshot of a {@link CountdownEngine}, safe to pass between threads.
+ */
+public final class TimerState {
+
+    private final boolean mRunning;
+    private final long mRemainingMillis;
+    private final long mDeadline;
+    private final long mTime;
+
+    TimerState(boolean running, long remainingMillis, long deadline, long time) {
+        mRunning = running;
+        mRemainingMillis = remainingMillis;
+        mDeadline = deadline;
+        mTime = time;
+    }
+
+    public boolean isRunning() {
+        return mRunning;
+    }
+
+    /**
+     * @return remaining time in milliseconds when the snapshot was taken
+     */
+    public long getRemainingMillis() {
+        return mRemainingMillis;
+    }
+
+    /**
+     * @param now time of the engine clock
+     * @return remaining time in milliseconds at the given time, a paused state does not count down
+     */
+    public long getRemainingMillis(long now) {
+        return mRunning ? Math.max(0, mDeadline - now) : mRemainingMillis;
+    }
+
+    /**
+     * @return the deadline on the engine clock, only meaningful while running
+     */
+    public long getDeadline() {
+        return mDeadline;
+    }
+
+    /**
+     * @return time of the engine clock when the snapshot was taken
+     */
+    public long getTime() {
+        return mTime;
+    }
+
+    /**
+     * @return remaining time rounded up to whole seconds
+     */
+    public int getSeconds() {
+        return CountdownEngine.secondsOf(mRemainingMillis);
+    }
+
+    /**
+     * The engine does not know the dial, so the turn length is given, e.g. the dial range of the view in milliseconds
+     *
+     * @param turnMillis duration of one turn of the dial
+     * @return angle of the dial within the shown turn for the remaining time
+     */
+    public float getRadian(long turnMillis) {
+        return CountdownEngine.turnRadianOf(mRemainingMillis, turnMillis);
+    }
+
+    @Override
+    public String toString() {
+        return "TimerState{running=" + mRunning + ", remainingMillis=" + mRemainingMillis + ", deadline=" + mDeadline
+                + ", time=" + mTime + "}";
+    }
+}
@@ -0,0 +1,92 @@
+package com.circletimer.library.circletimerview;
+
+/**
+ * Tick engine on a virtual clock, for tests and simulations on the JVM.
+ * <p>
+ * The clock only moves when told to. {@link #advanceBy(long)} and {@link #advanceTo(long)} deliver every wakeup
+ * on the way synchronously, at its own time, so hours of countdown across many timers run in milliseconds and
+ * every run of the same scenario sees the same ticks in the same order. No thread is started.
+ */
+public class VirtualTickEngine extends TickEngine {
+
+    private long mTime;
+    private long mWakeupTime = -1;
+    private long mWakeupCount;
+
+    public VirtualTickEngine() {
+        this(0);
+    }
+
+    /**
+     * @param time start time of the clock in milliseconds
+     */
+    public VirtualTickEngine(long time) {
+        mTime = time;
+    }
+
+    @Override
+    public long now() {
+        return mTime;
+    }
+
+    /**
+     * Move the clock forward, delivering every wakeup on the way
+     *
+     * @param millis milliseconds to move forward
+     */
+    public void advanceBy(long millis) {
+        advanceTo(mTime + millis);
+    }
+
+    /**
+     * Move the clock forward to the given time, delivering every wakeup up to it. The clock never moves back
+     *
+     * @param time time to move to
+     */
+    public void advanceTo(long time) {
+        while (mWakeupTime >= 0 && mWakeupTime <= time) {
+            mTime = Math.max(mTime, mWakeupTime);
+            mWakeupTime = -1;
+            mWakeupCount++;
+            dispatchTicks();
+        }
+        mTime = Math.max(mTime, time);
+    }
+
+    /**
+     * Deliver wakeups until no callback is running or the clock reaches the limit
+     *
+     * @param limit time the clock does not move past
+     * @return true when no callback is running anymore
+     */
+    public boolean runUntilIdle(long limit) {
+        while (mWakeupTime >= 0 && mWakeupTime <= limit) {
+            advanceTo(mWakeupTime);
+        }
+        return mWakeupTime < 0;
+    }
+
+    /**
+     * @return time of the pending wakeup, or -1 when there is none
+     */
+    public long getNextWakeupTime() {
+        return mWakeupTime;
+    }
+
+    /**
+     * @return number of wakeups delivered so far
+     */
+    public long getWakeupCount() {
+        return mWakeupCount;
+    }
+
+    @Override
+    protected void scheduleWakeup(long time) {
+        mWakeupTime = time;
+    }
+
+    @Override
+    protected void cancelWakeup() {
+        mWakeupTime = -1;
+    }
+}
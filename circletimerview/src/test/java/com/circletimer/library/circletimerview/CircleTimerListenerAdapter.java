@@ -0,0 +1,30 @@
+package com.circletimer.library.circletimerview;
+
+/**
+ * Listener doing nothing, tests override the events they count.
+ */
+class CircleTimerListenerAdapter implements CircleTimerView.CircleTimerListener {
+    @Override
+    public void onTimerStop() {
+    }
+
+    @Override
+    public void onTimerStart(int time) {
+    }
+
+    @Override
+    public void onTimerPause(int time) {
+    }
+
+    @Override
+    public void onTimerTimingValueChanged(int time) {
+    }
+
+    @Override
+    public void onTimerSetValueChanged(int time) {
+    }
+
+    @Override
+    public void onTimerSetValueChange(int time) {
+    }
+}
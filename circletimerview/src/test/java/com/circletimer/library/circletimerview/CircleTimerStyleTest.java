@@ -0,0 +1,93 @@
+package com.circletimer.library.circletimerview;
+
+import android.graphics.Canvas;
+import android.view.View;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Switches the style of many views at once and checks that only the affected state is rebuilt.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 26)
+public class CircleTimerStyleTest {
+
+    private static final int SIZE = 300;
+    private static final int NIGHT_BUTTON_COLOR = 0xFF303030;
+
+    @Test
+    public void build_internsEqualStyles() throws Exception {
+        CircleTimerView view = createView();
+        assertSame(view.getStyle(), new CircleTimerStyle.Builder(RuntimeEnvironment.application).build());
+        assertSame(view.getStyle(), new CircleTimerStyle.Builder(view.getStyle()).build());
+
+        CircleTimerStyle night = new CircleTimerStyle.Builder(view.getStyle())
+                .setCircleButtonColor(NIGHT_BUTTON_COLOR)
+                .build();
+        assertNotSame(view.getStyle(), night);
+        assertEquals(NIGHT_BUTTON_COLOR, night.getCircleButtonColor());
+        assertSame(night, new CircleTimerStyle.Builder(RuntimeEnvironment.application)
+                .setCircleButtonColor(NIGHT_BUTTON_COLOR)
+                .build());
+    }
+
+    @Test
+    public void setStyle_sharesThePaintsOfTheStyle() throws Exception {
+        CircleTimerView[] views = new CircleTimerView[200];
+        for (int i = 0; i < views.length; i++) {
+            views[i] = createView();
+        }
+        CircleTimerStyle day = views[0].getStyle();
+        CircleTimerStyle night = new CircleTimerStyle.Builder(day).setCircleButtonColor(NIGHT_BUTTON_COLOR).build();
+        for (CircleTimerView view : views) {
+            view.setStyle(night);
+        }
+        for (CircleTimerView view : views) {
+            assertSame(night, view.getStyle());
+            assertSame(night.mCircleButtonPaint, view.mCircleButtonPaint);
+            assertEquals(NIGHT_BUTTON_COLOR, view.mCircleButtonPaint.getColor());
+        }
+
+        views[0].setStyle(day);
+        assertSame(day.mCircleButtonPaint, views[0].mCircleButtonPaint);
+    }
+
+    @Test
+    public void setStyle_onlyRebuildsWhatChanged() throws Exception {
+        CircleTimerView view = createView();
+        view.setRenderBackend(CircleTimerView.RENDER_BACKEND_DISPLAY_LIST);
+        view.draw(new Canvas());
+        assertTrue(view.mDialPictureValid);
+        CircleTimerStyle day = view.getStyle();
+
+        // The circle button is not part of the dial
+        view.setStyle(new CircleTimerStyle.Builder(day).setCircleButtonColor(NIGHT_BUTTON_COLOR).build());
+        assertTrue(view.mDialPictureValid);
+        assertFalse(view.isLayoutRequested());
+
+        view.setStyle(new CircleTimerStyle.Builder(day).setLineColor(NIGHT_BUTTON_COLOR).build());
+        assertFalse(view.mDialPictureValid);
+        assertFalse(view.isLayoutRequested());
+
+        view.setStyle(new CircleTimerStyle.Builder(day).setLineLength(day.getLineLength() * 2).build());
+        assertTrue(view.isLayoutRequested());
+    }
+
+    private static CircleTimerView createView() {
+        CircleTimerView view = new CircleTimerView(RuntimeEnvironment.application);
+        int spec = View.MeasureSpec.makeMeasureSpec(SIZE, View.MeasureSpec.EXACTLY);
+        view.measure(spec, spec);
+        view.layout(0, 0, SIZE, SIZE);
+        return view;
+    }
+}
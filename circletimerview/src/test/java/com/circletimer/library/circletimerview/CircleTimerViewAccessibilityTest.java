@@ -0,0 +1,102 @@
+package com.circletimer.library.circletimerview;
+
+import android.view.accessibility.AccessibilityEvent;
+import android.view.accessibility.AccessibilityNodeInfo;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.Shadows;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs timers with accessibility enabled and counts what is announced.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 26)
+public class CircleTimerViewAccessibilityTest {
+
+    private VirtualTickEngine mEngine;
+    private CountingView mView;
+
+    @Before
+    public void setUp() throws Exception {
+        mEngine = new VirtualTickEngine();
+        mEngine.setAlignment(HandlerTickEngine.SHARED_ALIGNMENT);
+        mView = new CountingView();
+        mView.setTickEngine(mEngine);
+        Shadows.shadowOf(mView.mAccessibilityManager).setEnabled(true);
+    }
+
+    @Test
+    public void runningTimer_isAnnouncedOncePerInterval() throws Exception {
+        mView.setCurrentTime(10 * 60);
+        mView.startTimer();
+        assertEquals("10 minutes remaining", mView.getAccessibilityText().toString());
+        mEngine.advanceBy(90 * 1000);
+        assertEquals("9 minutes remaining", mView.getAccessibilityText().toString());
+        assertTrue(mEngine.runUntilIdle(3600 * 1000));
+
+        // The set, the start, one per minute and the stop instead of one per second
+        assertTrue(mView.announcements <= 2 + 10 + 1);
+        assertEquals("0 seconds", mView.getAccessibilityText().toString());
+    }
+
+    @Test
+    public void runningTimer_withoutInterval_isOnlyAnnouncedOnStateChanges() throws Exception {
+        mView.setAccessibilityAnnounceInterval(0);
+        mView.setCurrentTime(10 * 60);
+        mView.startTimer();
+        mEngine.advanceBy(5 * 60 * 1000);
+        mView.pauseTimer();
+        mView.startTimer();
+        assertTrue(mEngine.runUntilIdle(3600 * 1000));
+        // Set, start, pause, start, stop
+        assertEquals(5, mView.announcements);
+    }
+
+    @Test
+    public void adjustActions_stepTheTime() throws Exception {
+        mView.setCurrentTime(90);
+        assertEquals("1 minute 30 seconds", mView.getAccessibilityText().toString());
+        assertTrue(mView.performAccessibilityAction(AccessibilityNodeInfo.ACTION_SCROLL_FORWARD, null));
+        assertEquals(120, mView.getCurrentTime());
+        assertTrue(mView.performAccessibilityAction(AccessibilityNodeInfo.ACTION_SCROLL_BACKWARD, null));
+        assertEquals(60, mView.getCurrentTime());
+
+        mView.setValueStep(300);
+        assertTrue(mView.performAccessibilityAction(AccessibilityNodeInfo.ACTION_SCROLL_FORWARD, null));
+        assertEquals(300, mView.getCurrentTime());
+        assertEquals("5 minutes", mView.getAccessibilityText().toString());
+    }
+
+    @Test
+    public void accessibilityOff_announcesNothing() throws Exception {
+        Shadows.shadowOf(mView.mAccessibilityManager).setEnabled(false);
+        mView.setCurrentTime(60);
+        mView.startTimer();
+        assertTrue(mEngine.runUntilIdle(3600 * 1000));
+        assertEquals(0, mView.announcements);
+    }
+
+    private static class CountingView extends CircleTimerView {
+        int announcements;
+
+        CountingView() {
+            super(RuntimeEnvironment.application);
+        }
+
+        @Override
+        public void sendAccessibilityEvent(int eventType) {
+            if (eventType == AccessibilityEvent.TYPE_WINDOW_CONTENT_CHANGED) {
+                announcements++;
+            }
+            super.sendAccessibilityEvent(eventType);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.circletimer.library.circletimerview;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.view.View;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Draws many frames of a running timer and checks that onDraw does not allocate in steady state.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 26)
+public class CircleTimerViewAllocationTest {
+
+    private static final int SIZE = 600;
+    private static final int WARM_UP_FRAMES = 2000;
+    private static final int FRAMES = 20000;
+
+    private CircleTimerView mView;
+    private NoOpCanvas mCanvas;
+
+    @Before
+    public void setUp() throws Exception {
+        mView = new CircleTimerView(RuntimeEnvironment.application);
+        mView.setHintText("Timer");
+        int spec = View.MeasureSpec.makeMeasureSpec(SIZE, View.MeasureSpec.EXACTLY);
+        mView.measure(spec, spec);
+        mView.layout(0, 0, SIZE, SIZE);
+        mCanvas = new NoOpCanvas();
+    }
+
+    @Test
+    public void onDraw_doesNotAllocate() throws Exception {
+        assertNoAllocation();
+    }
+
+    @Test
+    public void onDraw_withDialCache_doesNotAllocate() throws Exception {
+        mView.setDialCacheEnabled(true);
+        assertNoAllocation();
+    }
+
+    @Test
+    public void onDraw_withDigitCache_doesNotAllocate() throws Exception {
+        mView.setDigitCache(CircleTimerView.DIGIT_CACHE_PATHS);
+        assertNoAllocation();
+    }
+
+    @Test
+    public void onDraw_withTenths_doesNotAllocate() throws Exception {
+        mView.setTimeFormat(CircleTimerView.TIME_FORMAT_MINUTE_SECOND_TENTHS);
+        mView.setDialRange(30);
+        assertNoAllocation();
+    }
+
+    private void assertNoAllocation() {
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        drawFrames(WARM_UP_FRAMES);
+
+        // The measurement itself may allocate a little, a per frame allocation would show up as at least FRAMES bytes
+        long before = bean.getThreadAllocatedBytes(threadId);
+        drawFrames(FRAMES);
+        long allocated = bean.getThreadAllocatedBytes(threadId) - before;
+
+        assertTrue("onDraw allocated " + allocated + " bytes in " + FRAMES + " frames", allocated < FRAMES);
+        assertTrue(mCanvas.drawCount > 0);
+    }
+
+    private void drawFrames(int frames) {
+        for (int i = 0; i < frames; i++) {
+            // Sweep through a full hour so every tick range and time text is drawn
+            int time = i % 3600;
+            mView.mCurrentTime = time;
+            mView.mCurrentMillis = time * 1000L - i % 10 * 100;
+            mView.mCurrentRadian = (float) (time / 60.0f * 2 * Math.PI / 60);
+            mView.onDraw(mCanvas);
+        }
+    }
+
+    /**
+     * Canvas that only counts the draw calls of the view
+     */
+    private static class NoOpCanvas extends Canvas {
+        int drawCount;
+
+        @Override
+        public void drawLines(float[] pts, int offset, int count, Paint paint) {
+            drawCount++;
+        }
+
+        @Override
+        public void drawText(String text, float x, float y, Paint paint) {
+            drawCount++;
+        }
+
+        @Override
+        public void drawText(char[] text, int index, int count, float x, float y, Paint paint) {
+            drawCount++;
+        }
+
+        @Override
+        public void drawCircle(float cx, float cy, float radius, Paint paint) {
+            drawCount++;
+        }
+
+        @Override
+        public void drawBitmap(Bitmap bitmap, float left, float top, Paint paint) {
+            drawCount++;
+        }
+
+        @Override
+        public void drawPath(Path path, Paint paint) {
+            drawCount++;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.circletimer.library.circletimerview;
+
+import android.graphics.Canvas;
+import android.view.View;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Binds a few recycled views to the models of a long list, like a RecyclerView does while scrolling.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 26)
+public class CircleTimerViewBindTest {
+
+    private static final int SIZE = 300;
+    private static final int ROWS = 1000;
+    private static final int BINDS = 20000;
+
+    private VirtualTickEngine mEngine;
+    private CountdownEngine[] mModels;
+    private CircleTimerView[] mViews;
+
+    @Before
+    public void setUp() throws Exception {
+        mEngine = new VirtualTickEngine();
+        mModels = new CountdownEngine[ROWS];
+        for (int i = 0; i < ROWS; i++) {
+            mModels[i] = new CountdownEngine(mEngine);
+            mModels[i].setRemainingMillis((i + 1) * 1000L);
+            if (i % 2 == 0) {
+                mModels[i].start();
+            }
+        }
+        mViews = new CircleTimerView[8];
+        for (int i = 0; i < mViews.length; i++) {
+            mViews[i] = new CircleTimerView(RuntimeEnvironment.application);
+            mViews[i].setTickEngine(mEngine);
+            int spec = View.MeasureSpec.makeMeasureSpec(SIZE, View.MeasureSpec.EXACTLY);
+            mViews[i].measure(spec, spec);
+            mViews[i].layout(0, 0, SIZE, SIZE);
+        }
+    }
+
+    @Test
+    public void views_shareTheirStyle() throws Exception {
+        assertSame(mViews[0].getStyle(), mViews[1].getStyle());
+        assertSame(mViews[0].mCirclePaint, mViews[1].mCirclePaint);
+        assertSame(mViews[0].mTimerNumberPaint, mViews[1].mTimerNumberPaint);
+
+        // Views of the same size and dial draw the same cached dial
+        Canvas canvas = new Canvas();
+        mViews[0].setDialCacheEnabled(true);
+        mViews[1].setDialCacheEnabled(true);
+        mViews[0].draw(canvas);
+        mViews[1].draw(canvas);
+        assertSame(mViews[0].mDialCache, mViews[1].mDialCache);
+
+        mViews[1].setTickCount(60);
+        mViews[1].draw(canvas);
+        assertFalse(mViews[0].mDialCache == mViews[1].mDialCache);
+    }
+
+    @Test
+    public void bind_showsTheModel() throws Exception {
+        mEngine.advanceTo(500);
+        CircleTimerView view = mViews[0];
+        view.bind(mModels[9]);
+        assertTrue(view.isBound());
+        assertEquals(10, view.getCurrentTime());
+        view.bind(mModels[10]);
+        assertEquals(11, view.getCurrentTime());
+        assertSame(mModels[10], view.getCountdownEngine());
+
+        // Running rows tick, the others do not
+        assertTrue(mEngine.isRunning(view.mTickCallback));
+        view.bind(mModels[11]);
+        assertFalse(mEngine.isRunning(view.mTickCallback));
+    }
+
+    @Test
+    public void unbind_leavesTheModelRunning() throws Exception {
+        CircleTimerView view = mViews[0];
+        view.bind(mModels[0]);
+        view.unbind();
+        assertFalse(view.isBound());
+        assertEquals(0, view.getCurrentTime());
+        assertEquals(0, mEngine.getRunningCount());
+        assertTrue(mModels[0].isRunning());
+    }
+
+    @Test
+    public void scrolling_doesNotAllocateOrStartThreads() throws Exception {
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        int threads = Thread.activeCount();
+        scroll(BINDS);
+
+        long before = bean.getThreadAllocatedBytes(threadId);
+        scroll(BINDS);
+        long allocated = bean.getThreadAllocatedBytes(threadId) - before;
+
+        assertTrue("bind allocated " + allocated + " bytes in " + BINDS + " binds", allocated < BINDS);
+        assertEquals(threads, Thread.activeCount());
+        // Only the bound running rows are ticking
+        assertTrue(mEngine.getRunningCount() <= mViews.length);
+    }
+
+    private void scroll(int binds) {
+        for (int i = 0; i < binds; i++) {
+            // The view leaving the screen is bound to the row entering it
+            mViews[i % mViews.length].bind(mModels[i % ROWS]);
+        }
+    }
+}
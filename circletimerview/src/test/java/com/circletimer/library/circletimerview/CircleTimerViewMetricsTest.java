@@ -0,0 +1,49 @@
+package com.circletimer.library.circletimerview;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs timers with metrics set and checks what the view reports to its {@link TimerMetrics}.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 26)
+public class CircleTimerViewMetricsTest {
+
+    @Test
+    public void alignedTicks_onTime_haveNoJitter() throws Exception {
+        // Started between two aligned times, so each requested tick is rounded up by the engine
+        VirtualTickEngine engine = new VirtualTickEngine(250);
+        engine.setAlignment(HandlerTickEngine.SHARED_ALIGNMENT);
+        HistogramTimerMetrics metrics = run(engine);
+        assertEquals(0, metrics.getTickJitter().getMax());
+    }
+
+    @Test
+    public void unalignedTicks_onTime_haveNoJitter() throws Exception {
+        HistogramTimerMetrics metrics = run(new VirtualTickEngine(250));
+        assertEquals(0, metrics.getTickJitter().getMax());
+    }
+
+    private static HistogramTimerMetrics run(VirtualTickEngine engine) {
+        HistogramTimerMetrics metrics = new HistogramTimerMetrics();
+        CircleTimerView view = new CircleTimerView(RuntimeEnvironment.application);
+        view.setTickEngine(engine);
+        view.setTimerMetrics(metrics);
+        view.setCurrentTime(60);
+        view.startTimer();
+        assertTrue(engine.runUntilIdle(120 * 1000));
+        assertEquals(0, view.getCurrentTime());
+        // One tick per second and the stop
+        assertTrue(metrics.getTickJitter().getCount() >= 60);
+        assertTrue(metrics.getInvalidationCount(TimerMetrics.INVALIDATE_TICK)
+                + metrics.getSkippedInvalidationCount(TimerMetrics.INVALIDATE_TICK) > 0);
+        return metrics;
+    }
+}
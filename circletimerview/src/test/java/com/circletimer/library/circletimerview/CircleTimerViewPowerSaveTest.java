@@ -0,0 +1,128 @@
+package com.circletimer.library.circletimerview;
+
+import android.app.Activity;
+import android.view.View;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs a one hour countdown on a simulated clock and counts the wakeups and threads it costs, with the view hidden
+ * and with the view ticking every second.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 26)
+public class CircleTimerViewPowerSaveTest {
+
+    private static final long HOUR = 3600 * 1000;
+
+    @Test
+    public void hiddenTimer_wakesUpOnlyAtTheDeadline() throws Exception {
+        Result result = run(true);
+        assertTrue(result.wakeups <= 2);
+        assertEquals(0, result.addedThreads);
+        // The countdown still ends on time and reports it, the values in between are not reported
+        assertEquals(1, result.stops);
+        assertEquals(1, result.valueChanges);
+        assertEquals(0, result.view.getCurrentTime());
+        assertEquals(0, result.stopDelay);
+    }
+
+    @Test
+    public void tickingTimer_wakesUpEverySecond() throws Exception {
+        Result result = run(false);
+        assertTrue(result.wakeups >= HOUR / 1000);
+        assertEquals(0, result.addedThreads);
+        assertEquals(1, result.stops);
+        assertEquals(HOUR / 1000, result.valueChanges);
+    }
+
+    @Test
+    public void attachedTimer_ticksOnceLaidOut() throws Exception {
+        Activity activity = Robolectric.setupActivity(Activity.class);
+        VirtualTickEngine engine = new VirtualTickEngine(250);
+        CircleTimerView view = new CircleTimerView(activity);
+        view.setTickEngine(engine);
+        view.setPowerSaveEnabled(true);
+        view.setCurrentTime(60);
+        view.startTimer();
+
+        // Attached before it has a size, then laid out, it is seen from then on
+        activity.setContentView(view);
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+        assertTrue(view.getWidth() > 0);
+        engine.advanceBy(10 * 1000);
+        assertEquals(50, view.getCurrentTime());
+        assertTrue(engine.getWakeupCount() >= 10);
+    }
+
+    @Test
+    public void detachedTimer_wakesUpOnceToStopOnTime() throws Exception {
+        VirtualTickEngine engine = new VirtualTickEngine(250);
+        engine.setAlignment(HandlerTickEngine.SHARED_ALIGNMENT);
+        CircleTimerView view = new CircleTimerView(RuntimeEnvironment.application);
+        view.setTickEngine(engine);
+        view.setCurrentTime(60);
+        view.startTimer();
+        engine.advanceBy(10 * 1000);
+        long wakeups = engine.getWakeupCount();
+
+        view.onDetachedFromWindow();
+        assertEquals(250 + 60 * 1000, engine.getNextWakeupTime());
+        assertTrue(engine.runUntilIdle(HOUR));
+        assertEquals(wakeups + 1, engine.getWakeupCount());
+        assertEquals(0, view.getCurrentTime());
+        assertFalse(view.getCountdownEngine().isRunning());
+    }
+
+    private static Result run(boolean powerSave) {
+        int threads = Thread.activeCount();
+        final Result result = new Result();
+        final VirtualTickEngine engine = new VirtualTickEngine(250);
+        engine.setAlignment(HandlerTickEngine.SHARED_ALIGNMENT);
+
+        CircleTimerView view = new CircleTimerView(RuntimeEnvironment.application);
+        view.setPowerSaveEnabled(powerSave);
+        view.setVisibility(View.GONE);
+        view.setTickEngine(engine);
+        view.addCircleTimerListener(new CircleTimerListenerAdapter() {
+            @Override
+            public void onTimerTimingValueChanged(int time) {
+                result.valueChanges++;
+            }
+
+            @Override
+            public void onTimerStop() {
+                result.stops++;
+                result.stopDelay = engine.now() - 250 - HOUR;
+            }
+        });
+        view.setCurrentTime((int) (HOUR / 1000));
+        view.startTimer();
+
+        assertTrue(engine.runUntilIdle(2 * HOUR));
+        result.view = view;
+        result.wakeups = engine.getWakeupCount();
+        result.addedThreads = Thread.activeCount() - threads;
+        return result;
+    }
+
+    private static class Result {
+        CircleTimerView view;
+        long wakeups;
+        int valueChanges;
+        int stops;
+        long stopDelay;
+        int addedThreads;
+    }
+
+}
@@ -0,0 +1,152 @@
+package com.circletimer.library.circletimerview;
+
+import android.os.SystemClock;
+import android.view.MotionEvent;
+import android.view.View;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Drags the circle button with motion events and checks the reported values and where the button ends.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 26)
+public class CircleTimerViewTouchTest {
+
+    private static final int SIZE = 600;
+
+    private CircleTimerView mView;
+    private List<Integer> mChanges;
+    private List<Integer> mChanged;
+    private long mDownTime;
+
+    @Before
+    public void setUp() throws Exception {
+        // Frames only run when the test flushes them
+        Robolectric.getForegroundThreadScheduler().pause();
+        mView = new CircleTimerView(RuntimeEnvironment.application);
+        mView.setTickEngine(new VirtualTickEngine());
+        int spec = View.MeasureSpec.makeMeasureSpec(SIZE, View.MeasureSpec.EXACTLY);
+        mView.measure(spec, spec);
+        mView.layout(0, 0, SIZE, SIZE);
+        mChanges = new ArrayList<>();
+        mChanged = new ArrayList<>();
+        mView.setCircleTimerListener(new CircleTimerListenerAdapter() {
+            @Override
+            public void onTimerSetValueChange(int time) {
+                mChanges.add(time);
+            }
+
+            @Override
+            public void onTimerSetValueChanged(int time) {
+                mChanged.add(time);
+            }
+        });
+    }
+
+    @Test
+    public void drag_withValueStep_reportsStepsAndSnapsTheButtonOnRelease() throws Exception {
+        mView.setValueStep(300);
+        down();
+        // 100 degrees is 1000 seconds, one degree at a time
+        for (int degree = 1; degree <= 100; degree++) {
+            move(degree);
+        }
+        // Each step once, in order
+        assertEquals(3, mChanges.size());
+        for (int i = 0; i < mChanges.size(); i++) {
+            assertEquals((i + 1) * 300, (int) mChanges.get(i));
+        }
+        assertEquals(900, mView.getCurrentTime());
+        // The button follows the finger while dragged
+        assertEquals(Math.toRadians(100), mView.mCurrentRadian, 1e-3);
+
+        up(100);
+        assertEquals(1, mChanged.size());
+        assertEquals(900, (int) mChanged.get(0));
+        assertEquals(900, mView.getCurrentTime());
+        assertEquals(CountdownEngine.turnRadianOf(900 * 1000, CountdownEngine.TURN_MILLIS), mView.mCurrentRadian, 0);
+    }
+
+    @Test
+    public void drag_withCoalescing_reportsTheLatestValueOncePerFrame() throws Exception {
+        mView.setTouchCoalescingEnabled(true);
+        down();
+        for (int degree = 1; degree <= 36; degree++) {
+            move(degree);
+        }
+        // Nothing before the frame, then only the latest value
+        assertTrue(mChanges.isEmpty());
+        Robolectric.flushForegroundThreadScheduler();
+        assertEquals(1, mChanges.size());
+        assertEquals(360, mView.getCurrentTime(), 1);
+        assertEquals(mView.getCurrentTime(), (int) mChanges.get(0));
+
+        // A value still pending on release is delivered before the release
+        for (int degree = 37; degree <= 72; degree++) {
+            move(degree);
+        }
+        assertEquals(1, mChanges.size());
+        up(72);
+        assertEquals(2, mChanges.size());
+        assertEquals(720, mView.getCurrentTime(), 1);
+        assertEquals(mView.getCurrentTime(), (int) mChanges.get(1));
+        assertEquals(mView.getCurrentTime(), (int) mChanged.get(0));
+        // The frame was cancelled and reports nothing more
+        Robolectric.flushForegroundThreadScheduler();
+        assertEquals(2, mChanges.size());
+    }
+
+    @Test
+    public void drag_batchedSamples_followTheWholePath() throws Exception {
+        down();
+        // Three quarters of a turn in one event, the history carries the path so the direction is not lost
+        MotionEvent event = obtain(MotionEvent.ACTION_MOVE, 10);
+        for (int degree = 20; degree <= 270; degree += 10) {
+            double angle = Math.toRadians(degree);
+            event.addBatch(mDownTime + 1, x(angle), y(angle), 1, 1, 0);
+        }
+        mView.onTouchEvent(event);
+        assertEquals(2700, mView.getCurrentTime(), 1);
+        up(270);
+        assertEquals(mView.getCurrentTime(), (int) mChanged.get(0));
+    }
+
+    private void down() {
+        mDownTime = SystemClock.uptimeMillis();
+        mView.onTouchEvent(obtain(MotionEvent.ACTION_DOWN, 0));
+    }
+
+    private void move(int degree) {
+        mView.onTouchEvent(obtain(MotionEvent.ACTION_MOVE, degree));
+    }
+
+    private void up(int degree) {
+        mView.onTouchEvent(obtain(MotionEvent.ACTION_UP, degree));
+    }
+
+    private MotionEvent obtain(int action, int degree) {
+        double angle = Math.toRadians(degree);
+        return MotionEvent.obtain(mDownTime, mDownTime + 1, action, x(angle), y(angle), 0);
+    }
+
+    private static float x(double angle) {
+        return (float) (SIZE / 2 + SIZE / 3 * Math.sin(angle));
+    }
+
+    private static float y(double angle) {
+        return (float) (SIZE / 2 - SIZE / 3 * Math.cos(angle));
+    }
+}
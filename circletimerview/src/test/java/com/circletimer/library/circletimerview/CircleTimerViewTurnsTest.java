@@ -0,0 +1,151 @@
+package com.circletimer.library.circletimerview;
+
+import android.os.SystemClock;
+import android.view.MotionEvent;
+import android.view.View;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Sets, drags and runs times of several turns of the dial, up to days.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 26)
+public class CircleTimerViewTurnsTest {
+
+    private static final int SIZE = 600;
+
+    private VirtualTickEngine mEngine;
+    private CircleTimerView mView;
+
+    @Before
+    public void setUp() throws Exception {
+        mEngine = new VirtualTickEngine();
+        mView = new CircleTimerView(RuntimeEnvironment.application);
+        mView.setTickEngine(mEngine);
+        int spec = View.MeasureSpec.makeMeasureSpec(SIZE, View.MeasureSpec.EXACTLY);
+        mView.measure(spec, spec);
+        mView.layout(0, 0, SIZE, SIZE);
+    }
+
+    @Test
+    public void setCurrentMillis_keepsEveryMillisecondOfDays() throws Exception {
+        long millis = 3 * 24 * 3600 * 1000L + 500;
+        mView.setCurrentMillis(millis);
+        assertEquals(millis, mView.getCurrentMillis());
+        assertEquals(3 * 24 * 3600 + 1, mView.getCurrentTime());
+        assertEquals(72, mView.getTurnCount());
+        assertEquals(CountdownEngine.radianOf(500, CountdownEngine.TURN_MILLIS), mView.mCurrentRadian, 0);
+
+        // A whole turn shows a full dial, not an empty one
+        mView.setCurrentTime(3600);
+        assertEquals(0, mView.getTurnCount());
+        assertEquals(2 * Math.PI, mView.mCurrentRadian, 1e-6);
+        mView.setCurrentMillis(250);
+        assertEquals(1, mView.getCurrentTime());
+    }
+
+    @Test
+    public void setCurrentMillis_isShownBeforeItIsReported() throws Exception {
+        final long millis = 2 * 3600 * 1000L + 1500;
+        final long[] seen = new long[2];
+        mView.setCircleTimerListener(new CircleTimerListenerAdapter() {
+            @Override
+            public void onTimerSetValueChanged(int time) {
+                seen[0] = mView.getCurrentMillis();
+                seen[1] = mView.getTurnCount();
+            }
+        });
+        mView.setCurrentMillis(millis);
+        assertEquals(millis, seen[0]);
+        assertEquals(2, seen[1]);
+    }
+
+    @Test
+    public void countdown_dropsATurnWhenItCrossesIt() throws Exception {
+        mView.setCurrentTime(2 * 3600 + 2);
+        assertEquals(2, mView.getTurnCount());
+        mView.startTimer();
+        mEngine.advanceBy(2000);
+        assertEquals(2 * 3600, mView.getCurrentTime());
+        assertEquals(1, mView.getTurnCount());
+        mEngine.advanceBy(3600 * 1000);
+        assertEquals(3600, mView.getCurrentTime());
+        assertEquals(0, mView.getTurnCount());
+        assertTrue(mEngine.runUntilIdle(3 * 3600 * 1000));
+        assertEquals(0, mView.getCurrentTime());
+    }
+
+    @Test
+    public void drag_countsTurnsBothWays() throws Exception {
+        long downTime = SystemClock.uptimeMillis();
+        mView.onTouchEvent(MotionEvent.obtain(downTime, downTime, MotionEvent.ACTION_DOWN, SIZE / 2, SIZE / 6, 0));
+        // Three and a half turns clockwise from 12 o'clock, one degree at a time
+        for (int degree = 1; degree <= 3 * 360 + 180; degree++) {
+            move(downTime, degree);
+        }
+        assertEquals(3, mView.getTurnCount());
+        assertEquals(3 * 3600 + 1800, mView.getCurrentTime(), 1);
+
+        // Back past 12 o'clock, the time cannot go below 0
+        for (int degree = 3 * 360 + 180; degree >= -90; degree--) {
+            move(downTime, degree);
+        }
+        assertEquals(0, mView.getTurnCount());
+        assertEquals(0, mView.getCurrentTime());
+        mView.onTouchEvent(MotionEvent.obtain(downTime, downTime, MotionEvent.ACTION_UP, SIZE / 2, SIZE / 6, 0));
+    }
+
+    @Test
+    public void drag_withDetents_snapsOverSeveralTurns() throws Exception {
+        mView.setDetents(0, 60, 3600, 2 * 3600, 24 * 3600);
+        mView.setCurrentTime(2 * 3600);
+        long downTime = SystemClock.uptimeMillis();
+        mView.onTouchEvent(MotionEvent.obtain(downTime, downTime, MotionEvent.ACTION_DOWN, SIZE / 2, SIZE / 6, 0));
+        for (int degree = 1; degree <= 6 * 360; degree++) {
+            move(downTime, degree);
+        }
+        // Eight hours, nearer to two hours than to a day
+        assertEquals(2 * 3600, mView.getCurrentTime());
+        for (int degree = 6 * 360; degree <= 14 * 360; degree++) {
+            move(downTime, degree);
+        }
+        assertEquals(24 * 3600, mView.getCurrentTime());
+        assertEquals(23, mView.getTurnCount());
+    }
+
+    @Test
+    public void drag_withDetentStep_snapsPastTheFirstTurn() throws Exception {
+        mView.setDetentStep(300);
+        long downTime = SystemClock.uptimeMillis();
+        mView.onTouchEvent(MotionEvent.obtain(downTime, downTime, MotionEvent.ACTION_DOWN, SIZE / 2, SIZE / 6, 0));
+        // Two and a half turns and a minute
+        for (int degree = 1; degree <= 2 * 360 + 186; degree++) {
+            move(downTime, degree);
+        }
+        assertEquals(2 * 3600 + 1800, mView.getCurrentTime());
+        assertEquals(2, mView.getTurnCount());
+        // Back by a turn, the finger and the time stay together
+        for (int degree = 2 * 360 + 186; degree >= 360 + 186; degree--) {
+            move(downTime, degree);
+        }
+        assertEquals(3600 + 1800, mView.getCurrentTime());
+        assertEquals(1, mView.getTurnCount());
+        mView.onTouchEvent(MotionEvent.obtain(downTime, downTime, MotionEvent.ACTION_UP, SIZE / 2, SIZE / 6, 0));
+        assertEquals(CountdownEngine.turnRadianOf(5400 * 1000, CountdownEngine.TURN_MILLIS), mView.mCurrentRadian, 0);
+    }
+
+    private void move(long downTime, int degree) {
+        double angle = Math.toRadians(degree);
+        mView.onTouchEvent(MotionEvent.obtain(downTime, downTime + 1, MotionEvent.ACTION_MOVE,
+                (float) (SIZE / 2 + SIZE / 3 * Math.sin(angle)), (float) (SIZE / 2 - SIZE / 3 * Math.cos(angle)), 0));
+    }
+}
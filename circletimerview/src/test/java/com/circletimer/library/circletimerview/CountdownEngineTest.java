@@ -0,0 +1,148 @@
+package com.circletimer.library.circletimerview;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs {@link CountdownEngine} on the JVM against the clock of a {@link VirtualTickEngine}, from several threads and
+ * at full speed.
+ */
+public class CountdownEngineTest {
+
+    private static final int THREADS = 4;
+    private static final int OPERATIONS = 1000000;
+
+    @Test
+    public void startPauseResume_keepsRemainingTime() throws Exception {
+        VirtualTickEngine clock = new VirtualTickEngine();
+        CountdownEngine engine = new CountdownEngine(clock);
+        assertFalse(engine.start());
+
+        engine.setRemainingMillis(90 * 1000);
+        assertTrue(engine.start());
+        assertFalse(engine.start());
+        clock.advanceBy(30500);
+        assertEquals(59500, engine.getRemainingMillis());
+        assertEquals(60, engine.snapshot().getSeconds());
+
+        assertTrue(engine.pause());
+        assertFalse(engine.pause());
+        clock.advanceBy(100000);
+        assertEquals(59500, engine.getRemainingMillis());
+
+        assertTrue(engine.start());
+        clock.advanceBy(59500);
+        assertEquals(0, engine.getRemainingMillis());
+        assertEquals(0, engine.snapshot().getSeconds());
+    }
+
+    @Test
+    public void nextChangeTime_isWhenTheSecondChanges() throws Exception {
+        VirtualTickEngine clock = new VirtualTickEngine();
+        CountdownEngine engine = new CountdownEngine(clock);
+        assertEquals(-1, engine.getNextChangeTime(clock.now()));
+
+        engine.setRemainingMillis(2500);
+        engine.start();
+        // 2500 ms shows 3 s until 2000 ms are left
+        assertEquals(500, engine.getNextChangeTime(0));
+        assertEquals(1500, engine.getNextChangeTime(500));
+        assertEquals(2500, engine.getNextChangeTime(1500));
+    }
+
+    @Test
+    public void snapshot_derivesSecondsAndRadianFromMillis() throws Exception {
+        VirtualTickEngine clock = new VirtualTickEngine();
+        CountdownEngine engine = new CountdownEngine(clock);
+        engine.setRemainingMillis(15 * 60 * 1000);
+        TimerState state = engine.snapshot();
+        assertEquals(900, state.getSeconds());
+        assertEquals(Math.PI / 2, state.getRadian(CountdownEngine.TURN_MILLIS), 1e-6);
+        // On a 30 minute dial, and past a whole turn of a 10 minute dial
+        assertEquals(Math.PI, state.getRadian(30 * 60 * 1000), 1e-6);
+        assertEquals(Math.PI, state.getRadian(10 * 60 * 1000), 1e-6);
+        for (int seconds = 0; seconds <= 3600; seconds++) {
+            // The angle of a whole second converts back to the same second
+            float radian = CountdownEngine.radianOf(seconds * 1000L);
+            assertEquals(seconds, CountdownEngine.secondsOf(CountdownEngine.millisOf(radian)));
+        }
+
+        engine.start();
+        clock.advanceBy(1000);
+        // A snapshot does not change with the engine, but can be extrapolated while running
+        assertEquals(900 * 1000, state.getRemainingMillis());
+        assertEquals(899 * 1000, engine.snapshot().getRemainingMillis());
+        assertEquals(898 * 1000, engine.snapshot().getRemainingMillis(clock.now() + 1000));
+    }
+
+    @Test
+    public void turns_splitLongTimesWithoutLosingMillis() throws Exception {
+        long turnMillis = CountdownEngine.TURN_MILLIS;
+        assertEquals(0, CountdownEngine.turnsOf(0, turnMillis));
+        assertEquals(0, CountdownEngine.turnsOf(turnMillis, turnMillis));
+        assertEquals(1, CountdownEngine.turnsOf(turnMillis + 1, turnMillis));
+        assertEquals(2 * Math.PI, CountdownEngine.turnRadianOf(turnMillis, turnMillis), 1e-6);
+        assertEquals(Math.PI, CountdownEngine.turnRadianOf(30 * turnMillis + turnMillis / 2, turnMillis), 1e-6);
+        for (long millis = 0; millis <= 7 * 24 * 3600 * 1000L; millis += 999) {
+            // A week on an hour dial, the angle within the turn converts back to the same millisecond
+            int turns = CountdownEngine.turnsOf(millis, turnMillis);
+            float radian = CountdownEngine.turnRadianOf(millis, turnMillis);
+            assertTrue(radian >= 0 && radian <= (float) (2 * Math.PI));
+            assertEquals(millis, CountdownEngine.millisOf(turns, radian, turnMillis));
+        }
+        for (long millis = 0; millis <= 30 * 24 * 3600 * 1000L; millis += 9999) {
+            // A month on a day dial, exact with a double angle
+            long dayMillis = 24 * 3600 * 1000L;
+            int turns = (int) (millis / dayMillis);
+            double radian = (millis - turns * dayMillis) * 2 * Math.PI / dayMillis;
+            assertEquals(millis, CountdownEngine.millisOf(turns, radian, dayMillis));
+        }
+    }
+
+    @Test
+    public void concurrentStartPause_staysConsistent() throws Exception {
+        final VirtualTickEngine clock = new VirtualTickEngine();
+        final CountdownEngine engine = new CountdownEngine(clock);
+        engine.setRemainingMillis(Long.MAX_VALUE / 2);
+        final AtomicBoolean failed = new AtomicBoolean();
+        final CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            final int id = t;
+            threads[t] = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < OPERATIONS / THREADS; i++) {
+                        if ((i + id) % 2 == 0) {
+                            engine.start();
+                        } else {
+                            engine.pause();
+                        }
+                        // The clock does not move, so the remaining time must never change
+                        TimerState state = engine.snapshot();
+                        if (state.getRemainingMillis() != Long.MAX_VALUE / 2) {
+                            failed.set(true);
+                        }
+                    }
+                }
+            };
+            threads[t].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertFalse(failed.get());
+    }
+}
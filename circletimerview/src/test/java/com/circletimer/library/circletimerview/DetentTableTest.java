@@ -0,0 +1,75 @@
+package com.circletimer.library.circletimerview;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks the lookups of {@link DetentTable} against a linear search for the nearest detent.
+ */
+public class DetentTableTest {
+
+    private static final long TURN_MILLIS = 3600 * 1000;
+    private static final int SAMPLES = 200000;
+
+    @Test
+    public void indexOf_evenSteps_findsNearestDetent() throws Exception {
+        assertNearest(steps(60), TURN_MILLIS);
+        assertNearest(steps(300), TURN_MILLIS);
+        assertNearest(steps(1), TURN_MILLIS);
+    }
+
+    @Test
+    public void indexOf_nonlinearDetents_findsNearestDetent() throws Exception {
+        assertNearest(new int[]{900, 0, 30, 60, 120, 300, 600, 60, -5}, TURN_MILLIS);
+        assertNearest(new int[]{0, 1, 2, 3, 5, 8, 13, 21, 34, 55, 89, 144, 233, 377, 610, 987, 1597, 2584}, TURN_MILLIS);
+        // Beyond one turn and a single detent
+        assertNearest(new int[]{0, 3600, 7200, 86400}, TURN_MILLIS);
+        assertNearest(new int[]{0}, TURN_MILLIS);
+    }
+
+    @Test
+    public void nextAndPrevious_stepBetweenDetents() throws Exception {
+        DetentTable table = new DetentTable(new int[]{0, 60, 300}, TURN_MILLIS);
+        assertEquals(3, table.size());
+        assertEquals(1, table.next(0));
+        assertEquals(2, table.next(60 * 1000));
+        assertEquals(2, table.next(61 * 1000));
+        assertEquals(-1, table.next(300 * 1000));
+        assertEquals(-1, table.previous(0));
+        assertEquals(0, table.previous(60 * 1000));
+        assertEquals(1, table.previous(299 * 1000));
+        assertEquals(300 * 1000, table.getMillis(2));
+    }
+
+    /**
+     * @return detents every step over one turn
+     */
+    private static int[] steps(int step) {
+        int[] seconds = new int[(int) (TURN_MILLIS / 1000 / step) + 1];
+        for (int i = 0; i < seconds.length; i++) {
+            seconds[i] = i * step;
+        }
+        return seconds;
+    }
+
+    private static void assertNearest(int[] seconds, long turnMillis) {
+        DetentTable table = new DetentTable(seconds, turnMillis);
+        long max = table.getMillis(table.size() - 1) + turnMillis;
+        for (int i = 0; i <= SAMPLES; i++) {
+            long millis = max * i / SAMPLES;
+            assertEquals("millis " + millis, nearest(table, millis), table.indexOf(millis));
+            assertEquals("millis " + (millis + 1), nearest(table, millis + 1), table.indexOf(millis + 1));
+        }
+    }
+
+    private static int nearest(DetentTable table, long millis) {
+        int nearest = 0;
+        for (int i = 1; i < table.size(); i++) {
+            if (Math.abs(table.getMillis(i) - millis) < Math.abs(table.getMillis(nearest) - millis)) {
+                nearest = i;
+            }
+        }
+        return nearest;
+    }
+}
@@ -0,0 +1,69 @@
+package com.circletimer.library.circletimerview;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks what {@link HistogramTimerMetrics} records for each {@link TimerMetrics} event.
+ */
+public class HistogramTimerMetricsTest {
+
+    @Test
+    public void onTick_recordsTheDelayAfterTheScheduledTime() throws Exception {
+        HistogramTimerMetrics metrics = new HistogramTimerMetrics();
+        metrics.onTick(1000, 1000);
+        metrics.onTick(2000, 2016);
+        // An early tick is not a negative delay
+        metrics.onTick(3000, 2990);
+        assertEquals(3, metrics.getTickJitter().getCount());
+        assertEquals(16, metrics.getTickJitter().getMax());
+        assertEquals(16, metrics.getTickJitter().getSum());
+        assertEquals(2, metrics.getTickJitter().getBucketCount(0));
+    }
+
+    @Test
+    public void events_areRecordedApart() throws Exception {
+        HistogramTimerMetrics metrics = new HistogramTimerMetrics();
+        metrics.onFrameDrawn(250000, 12);
+        metrics.onFrameDrawn(500000, 20);
+        metrics.onTouchToFrame(24);
+        metrics.onInvalidate(TimerMetrics.INVALIDATE_TICK, false);
+        metrics.onInvalidate(TimerMetrics.INVALIDATE_TICK, true);
+        metrics.onInvalidate(TimerMetrics.INVALIDATE_TICK, true);
+        metrics.onInvalidate(TimerMetrics.INVALIDATE_TOUCH, false);
+
+        assertEquals(2, metrics.getFrameDuration().getCount());
+        assertEquals(500000, metrics.getFrameDuration().getMax());
+        assertEquals(32, metrics.getDrawOps().getSum());
+        assertEquals(1, metrics.getTouchToFrame().getCount());
+        assertEquals(24, metrics.getTouchToFrame().getMax());
+        assertEquals(0, metrics.getTickJitter().getCount());
+        assertEquals(1, metrics.getInvalidationCount(TimerMetrics.INVALIDATE_TICK));
+        assertEquals(2, metrics.getSkippedInvalidationCount(TimerMetrics.INVALIDATE_TICK));
+        assertEquals(1, metrics.getInvalidationCount(TimerMetrics.INVALIDATE_TOUCH));
+        assertEquals(0, metrics.getSkippedInvalidationCount(TimerMetrics.INVALIDATE_TOUCH));
+        assertEquals(0, metrics.getInvalidationCount(TimerMetrics.INVALIDATE_STATE));
+    }
+
+    @Test
+    public void reset_clearsEveryMeasurement() throws Exception {
+        HistogramTimerMetrics metrics = new HistogramTimerMetrics();
+        metrics.onFrameDrawn(250000, 12);
+        metrics.onTick(1000, 1005);
+        metrics.onTouchToFrame(24);
+        for (int reason = 0; reason < TimerMetrics.INVALIDATE_REASON_COUNT; reason++) {
+            metrics.onInvalidate(reason, false);
+            metrics.onInvalidate(reason, true);
+        }
+        metrics.reset();
+        assertEquals(0, metrics.getFrameDuration().getCount());
+        assertEquals(0, metrics.getDrawOps().getCount());
+        assertEquals(0, metrics.getTickJitter().getCount());
+        assertEquals(0, metrics.getTouchToFrame().getCount());
+        for (int reason = 0; reason < TimerMetrics.INVALIDATE_REASON_COUNT; reason++) {
+            assertEquals(0, metrics.getInvalidationCount(reason));
+            assertEquals(0, metrics.getSkippedInvalidationCount(reason));
+        }
+    }
+}
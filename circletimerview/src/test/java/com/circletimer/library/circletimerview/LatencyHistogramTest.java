@@ -0,0 +1,103 @@
+package com.circletimer.library.circletimerview;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks the buckets, the percentiles and the reset of {@link LatencyHistogram}.
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    public void record_countsValuesInPowerOfTwoBuckets() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        long[] values = {0, -5, 1, 2, 3, 4, 7, 8, Long.MAX_VALUE};
+        for (long value : values) {
+            histogram.record(value);
+        }
+        // Negative values count as 0, each bucket ends before its limit
+        assertEquals(2, histogram.getBucketCount(0));
+        assertEquals(1, histogram.getBucketCount(1));
+        assertEquals(2, histogram.getBucketCount(2));
+        assertEquals(2, histogram.getBucketCount(3));
+        assertEquals(1, histogram.getBucketCount(4));
+        assertEquals(1, histogram.getBucketCount(LatencyHistogram.BUCKET_COUNT - 1));
+        assertEquals(values.length, histogram.getCount());
+        assertEquals(Long.MAX_VALUE, histogram.getMax());
+
+        assertEquals(1, LatencyHistogram.getBucketLimit(0));
+        assertEquals(8, LatencyHistogram.getBucketLimit(3));
+        assertEquals(Long.MAX_VALUE, LatencyHistogram.getBucketLimit(LatencyHistogram.BUCKET_COUNT - 1));
+    }
+
+    @Test
+    public void getPercentile_returnsTheBucketLimitUpToTheMax() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getPercentile(50));
+        for (int value = 1; value <= 100; value++) {
+            histogram.record(value);
+        }
+        // 50 is in [32, 64), 90 and 99 in [64, 128) which is capped by the max
+        assertEquals(64, histogram.getPercentile(50));
+        assertEquals(100, histogram.getPercentile(90));
+        assertEquals(100, histogram.getPercentile(99));
+        assertEquals(100, histogram.getPercentile(100));
+        // 3 of 100 values are below 4
+        assertEquals(4, histogram.getPercentile(3));
+        assertEquals(8, histogram.getPercentile(4));
+        assertEquals(5050, histogram.getSum());
+        assertEquals(50.5, histogram.getMean(), 0);
+    }
+
+    @Test
+    public void reset_clearsEverything() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(0);
+        histogram.record(1000);
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getSum());
+        assertEquals(0, histogram.getMax());
+        assertEquals(0, histogram.getMean(), 0);
+        assertEquals(0, histogram.getPercentile(99));
+        for (int i = 0; i < LatencyHistogram.BUCKET_COUNT; i++) {
+            assertEquals(0, histogram.getBucketCount(i));
+        }
+        histogram.record(3);
+        assertEquals(1, histogram.getBucketCount(2));
+        assertEquals(3, histogram.getMax());
+    }
+
+    @Test
+    public void concurrentRecord_losesNoValue() throws Exception {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        final CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            final int offset = t;
+            threads[t] = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < 100000; i++) {
+                        histogram.record(i % 1000 + offset);
+                    }
+                }
+            };
+            threads[t].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(400000, histogram.getCount());
+        assertEquals(999 + threads.length - 1, histogram.getMax());
+    }
+}
@@ -0,0 +1,211 @@
+package com.circletimer.library.circletimerview;
+
+import android.graphics.Canvas;
+import android.graphics.Rect;
+import android.view.View;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs several rings on a virtual clock and checks the events of each ring and the redrawn areas.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 26)
+public class MultiCircleTimerViewTest {
+
+    private static final int SIZE = 400;
+
+    private VirtualTickEngine mEngine;
+    private DirtyView mView;
+
+    @Before
+    public void setUp() throws Exception {
+        mEngine = new VirtualTickEngine();
+        mView = new DirtyView();
+        mView.setTickEngine(mEngine);
+        int spec = View.MeasureSpec.makeMeasureSpec(SIZE, View.MeasureSpec.EXACTLY);
+        mView.measure(spec, spec);
+        mView.layout(0, 0, SIZE, SIZE);
+    }
+
+    @Test
+    public void ringListeners_receiveTheEventsOfTheirRing() throws Exception {
+        RecordingListener[] listeners = new RecordingListener[3];
+        for (int i = 0; i < listeners.length; i++) {
+            listeners[i] = new RecordingListener();
+            mView.setRingListener(mView.addRing(), listeners[i]);
+            mView.setRingTime(i, (i + 1) * 10);
+        }
+        mView.startRing(0);
+        mView.startRing(2);
+        assertTrue(mEngine.runUntilIdle(3600 * 1000));
+
+        assertEquals(0, listeners[0].ring);
+        assertEquals(1, listeners[0].starts);
+        assertEquals(10, listeners[0].valueChanges);
+        assertEquals(1, listeners[0].stops);
+        assertEquals(2, listeners[2].ring);
+        assertEquals(30, listeners[2].valueChanges);
+        assertEquals(1, listeners[2].stops);
+        // The ring that was not started heard nothing
+        assertEquals(-1, listeners[1].ring);
+        assertEquals(20, mView.getRingTime(1));
+    }
+
+    @Test
+    public void rings_stopAtTheirOwnDeadline() throws Exception {
+        RecordingListener outer = new RecordingListener();
+        RecordingListener inner = new RecordingListener();
+        mView.setRingListener(mView.addRing(), outer);
+        mView.setRingListener(mView.addRing(), inner);
+        mView.setRingTime(0, 60);
+        mView.setRingTime(1, 20);
+        mView.startRing(0);
+        mEngine.advanceBy(250);
+        mView.startRing(1);
+
+        mEngine.advanceBy(20 * 1000);
+        assertEquals(20250, inner.stopTime);
+        assertFalse(mView.isRingStarted(1));
+        assertEquals(0, mView.getRingTime(1));
+        // The outer ring goes on
+        assertTrue(mView.isRingStarted(0));
+        assertEquals(-1, outer.stopTime);
+        assertEquals(40, mView.getRingTime(0));
+
+        // A paused ring keeps its time while the others stop
+        mView.pauseRing(0);
+        mView.setRingTime(1, 5);
+        mView.startRing(1);
+        assertTrue(mEngine.runUntilIdle(3600 * 1000));
+        assertEquals(1, outer.pauses);
+        assertEquals(-1, outer.stopTime);
+        assertEquals(40, mView.getRingTime(0));
+        assertEquals(25250, inner.stopTime);
+    }
+
+    @Test
+    public void detachedRings_stillStopAtTheirDeadline() throws Exception {
+        RecordingListener outer = new RecordingListener();
+        RecordingListener inner = new RecordingListener();
+        mView.setRingListener(mView.addRing(), outer);
+        mView.setRingListener(mView.addRing(), inner);
+        mView.setRingTime(0, 30);
+        mView.setRingTime(1, 10);
+        mView.onAttachedToWindow();
+        mView.startRing(0);
+        mView.startRing(1);
+        mView.onDetachedFromWindow();
+
+        long wakeups = mEngine.getWakeupCount();
+        assertTrue(mEngine.runUntilIdle(3600 * 1000));
+        // One wakeup per deadline, no ticks in between
+        assertEquals(2, mEngine.getWakeupCount() - wakeups);
+        assertEquals(1, inner.stops);
+        assertEquals(10000, inner.stopTime);
+        assertEquals(1, outer.stops);
+        assertEquals(30000, outer.stopTime);
+    }
+
+    @Test
+    public void dialRange_setsTheTimeOfOneTurn() throws Exception {
+        mView.addRing();
+        mView.setRingTime(0, 90);
+        assertEquals(CountdownEngine.turnRadianOf(90 * 1000, CountdownEngine.TURN_MILLIS), mView.mRadians[0], 0);
+
+        mView.setDialRange(60);
+        assertEquals(60, mView.getDialRange());
+        assertEquals(Math.PI, mView.mRadians[0], 1e-6);
+        mView.startRing(0);
+        mEngine.advanceBy(15 * 1000);
+        assertEquals(Math.PI / 2, mView.mRadians[0], 1e-6);
+    }
+
+    @Test
+    public void tick_invalidatesOnlyTheChangedRing() throws Exception {
+        mView.addRing();
+        mView.addRing();
+        mView.setRingTime(0, 60);
+        mView.setRingTime(1, 30);
+        mView.startRing(1);
+        mView.onDraw(new Canvas());
+        mView.dirty.clear();
+
+        mEngine.advanceBy(1000);
+        // One redraw of the inner ring, which lies within the outer ring
+        assertEquals(1, mView.dirty.size());
+        Rect dirty = mView.dirty.get(0);
+        int extent = (int) Math.ceil(mView.getRingRadius(1) + mView.mRingWidth / 2 + 1);
+        assertEquals(SIZE / 2 - extent, dirty.left, 1);
+        assertEquals(SIZE / 2 + extent, dirty.right, 1);
+        assertTrue(dirty.left > SIZE / 2 - mView.getRingRadius(0));
+        assertTrue(dirty.bottom < SIZE / 2 + mView.getRingRadius(0));
+
+        // A tick that changes nothing drawn redraws nothing
+        mView.onDraw(new Canvas());
+        mView.dirty.clear();
+        mView.pauseRing(1);
+        mEngine.advanceBy(5000);
+        assertTrue(mView.dirty.isEmpty());
+    }
+
+    private static class DirtyView extends MultiCircleTimerView {
+        final List<Rect> dirty = new ArrayList<>();
+
+        DirtyView() {
+            super(RuntimeEnvironment.application);
+        }
+
+        @Override
+        public void invalidate(int l, int t, int r, int b) {
+            dirty.add(new Rect(l, t, r, b));
+            super.invalidate(l, t, r, b);
+        }
+    }
+
+    private class RecordingListener implements MultiCircleTimerView.RingListener {
+        int ring = -1;
+        int starts;
+        int pauses;
+        int valueChanges;
+        int stops;
+        long stopTime = -1;
+
+        @Override
+        public void onRingStart(int ring, int time) {
+            this.ring = ring;
+            starts++;
+        }
+
+        @Override
+        public void onRingPause(int ring, int time) {
+            this.ring = ring;
+            pauses++;
+        }
+
+        @Override
+        public void onRingTimingValueChanged(int ring, int time) {
+            this.ring = ring;
+            valueChanges++;
+        }
+
+        @Override
+        public void onRingStop(int ring) {
+            this.ring = ring;
+            stops++;
+            stopTime = mEngine.now();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.circletimer.library.circletimerview;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs one simulated hour of 1, 10, 100 and 1000 simultaneous countdowns on a single engine and checks the number
+ * of wakeups, the number of threads and that every countdown stops on time. Their CPU time is measured by the
+ * tick.engine benchmarks of the benchmark module.
+ */
+public class TickEngineBenchmarkTest {
+
+    private static final long HOUR = 3600 * 1000;
+    private static final int[] TIMER_COUNTS = {1, 10, 100, 1000};
+
+    @Test
+    public void sharedEngine_coalescesWakeups() throws Exception {
+        for (int count : TIMER_COUNTS) {
+            Result unaligned = run(count, 0);
+            Result aligned = run(count, HandlerTickEngine.SHARED_ALIGNMENT);
+
+            // One wakeup per second and one per deadline whatever the number of timers, and no thread per timer
+            assertTrue(aligned.wakeups <= HOUR / 1000 + 1 + count);
+            assertEquals(0, aligned.addedThreads);
+            assertEquals(0, unaligned.addedThreads);
+            // Every countdown ends on time, only the ticks before the deadline are aligned
+            assertEquals(count, aligned.stopped);
+            assertEquals(0, aligned.maxStopDelay);
+            assertEquals(0, unaligned.maxStopDelay);
+        }
+    }
+
+    private static Result run(int count, long alignment) {
+        int threads = Thread.activeCount();
+        VirtualTickEngine engine = new VirtualTickEngine();
+        engine.setAlignment(alignment);
+        Random random = new Random(count);
+        Result result = new Result();
+        // Deadlines spread over the hour, started at random offsets within a second
+        long[] starts = new long[count];
+        for (int i = 0; i < count; i++) {
+            starts[i] = random.nextInt(1000);
+        }
+        Arrays.sort(starts);
+        for (long start : starts) {
+            Countdown countdown = new Countdown(result, start + 1 + random.nextInt((int) HOUR - 1000));
+            engine.advanceTo(start);
+            engine.start(countdown, countdown.nextTickTime(start));
+        }
+        assertTrue(engine.runUntilIdle(HOUR + 1000));
+        result.wakeups = engine.getWakeupCount();
+        result.addedThreads = Thread.activeCount() - threads;
+        return result;
+    }
+
+    private static class Result {
+        long wakeups;
+        int addedThreads;
+        int stopped;
+        long maxStopDelay;
+    }
+
+    /**
+     * Ticks like {@link CircleTimerView#onTimerTick(long)}, when the displayed second changes
+     */
+    private static class Countdown implements TickEngine.DeadlineCallback {
+        private final Result mResult;
+        private final long mDeadline;
+
+        Countdown(Result result, long deadline) {
+            mResult = result;
+            mDeadline = deadline;
+        }
+
+        long nextTickTime(long now) {
+            return CountdownEngine.nextChangeTime(mDeadline, now);
+        }
+
+        @Override
+        public long getDeadline() {
+            return mDeadline;
+        }
+
+        @Override
+        public long onTick(long now) {
+            if (now < mDeadline) {
+                return nextTickTime(now);
+            }
+            mResult.stopped++;
+            mResult.maxStopDelay = Math.max(mResult.maxStopDelay, now - mDeadline);
+            return TickEngine.STOP;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.circletimer.library.circletimerview;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Formats times in every format, from negative values to the longest times.
+ */
+public class TimeFormatterTest {
+
+    private final char[] mOut = new char[TimeFormatter.MAX_LENGTH];
+
+    @Test
+    public void formatHourMinute_isZeroPadded() throws Exception {
+        assertEquals("00:00", new String(mOut, 0, TimeFormatter.formatHourMinute(0, mOut)));
+        assertEquals("00:59", new String(mOut, 0, TimeFormatter.formatHourMinute(59 * 60 + 59, mOut)));
+        assertEquals("01:00", new String(mOut, 0, TimeFormatter.formatHourMinute(3600, mOut)));
+        assertEquals("123:04", new String(mOut, 0, TimeFormatter.formatHourMinute(123 * 3600 + 4 * 60, mOut)));
+    }
+
+    @Test
+    public void format_roundsUpToWholeSeconds() throws Exception {
+        assertEquals("01:00", format(59001, CircleTimerView.TIME_FORMAT_MINUTE_SECOND));
+        assertEquals("125:07", format((125 * 60 + 7) * 1000, CircleTimerView.TIME_FORMAT_MINUTE_SECOND));
+        assertEquals("02:05:07", format((125 * 60 + 7) * 1000, CircleTimerView.TIME_FORMAT_HOUR_MINUTE_SECOND));
+        assertEquals("00:29.9", format(29801, CircleTimerView.TIME_FORMAT_MINUTE_SECOND_TENTHS));
+        assertEquals("00:00.0", format(-5, CircleTimerView.TIME_FORMAT_MINUTE_SECOND_TENTHS));
+    }
+
+    @Test
+    public void formatHourMinute_dropsTheRoundedSeconds() throws Exception {
+        // Rounded up to a whole second, then the seconds are not shown
+        assertEquals("00:00", format(1000, CircleTimerView.TIME_FORMAT_HOUR_MINUTE));
+        assertEquals("00:00", format(59000, CircleTimerView.TIME_FORMAT_HOUR_MINUTE));
+        assertEquals("00:01", format(59001, CircleTimerView.TIME_FORMAT_HOUR_MINUTE));
+        assertEquals(0, TimeFormatter.displayedValue(59000, CircleTimerView.TIME_FORMAT_HOUR_MINUTE));
+        assertEquals(1, TimeFormatter.displayedValue(59001, CircleTimerView.TIME_FORMAT_HOUR_MINUTE));
+    }
+
+    @Test
+    public void format_clampsTheLongestTimes() throws Exception {
+        // Integer.MAX_VALUE seconds, not a wrapped negative time
+        assertEquals("596523:14", format(Long.MAX_VALUE, CircleTimerView.TIME_FORMAT_HOUR_MINUTE));
+        assertEquals("35791394:07", format(Long.MAX_VALUE, CircleTimerView.TIME_FORMAT_MINUTE_SECOND));
+        assertEquals("35791394:07.0", format(Long.MAX_VALUE, CircleTimerView.TIME_FORMAT_MINUTE_SECOND_TENTHS));
+        assertEquals(Long.MAX_VALUE / 100 + 1,
+                TimeFormatter.displayedValue(Long.MAX_VALUE, CircleTimerView.TIME_FORMAT_MINUTE_SECOND_TENTHS));
+        assertEquals(Integer.MAX_VALUE,
+                TimeFormatter.displayedValue(Long.MAX_VALUE, CircleTimerView.TIME_FORMAT_MINUTE_SECOND));
+    }
+
+    @Test
+    public void formatLabel_showsOneDecimalWhenNotWhole() throws Exception {
+        assertEquals("7.5", TimeFormatter.formatLabel(75));
+        assertEquals("60", TimeFormatter.formatLabel(600));
+    }
+
+    private String format(long millis, int format) {
+        return new String(mOut, 0, TimeFormatter.format(millis, format, mOut));
+    }
+}
@@ -0,0 +1,258 @@
+package com.circletimer.library.circletimerview;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Checks the fan-out, queueing and coalescing of {@link TimerEventBus} on the JVM.
+ */
+public class TimerEventBusTest {
+
+    private static final int EVENTS = 100000;
+
+    @Test
+    public void inlineSubscribers_receiveEventsInOrder() throws Exception {
+        TimerEventBus bus = new TimerEventBus();
+        RecordingListener first = new RecordingListener();
+        RecordingListener second = new RecordingListener();
+        bus.add(first);
+        bus.add(second);
+        bus.add(first);
+
+        bus.onTimerStart(60);
+        bus.onTimerTimingValueChanged(59);
+        bus.onTimerStop();
+        bus.remove(second);
+        bus.onTimerSetValueChanged(30);
+
+        assertEquals("start 60, timing 59, stop, setChanged 30", first.toString());
+        assertEquals("start 60, timing 59, stop", second.toString());
+    }
+
+    @Test
+    public void queuedSubscriber_coalescesValueEvents() throws Exception {
+        TimerEventBus bus = new TimerEventBus();
+        ManualExecutor executor = new ManualExecutor();
+        RecordingListener listener = new RecordingListener();
+        bus.add(listener, executor);
+
+        bus.onTimerStart(60);
+        for (int time = 59; time >= 50; time--) {
+            bus.onTimerTimingValueChanged(time);
+        }
+        bus.onTimerPause(50);
+        bus.onTimerSetValueChange(10);
+        bus.onTimerSetValueChange(20);
+        assertEquals("", listener.toString());
+        // One pending drain for the whole burst
+        assertEquals(1, executor.runnables.size());
+
+        executor.runAll();
+        assertEquals("start 60, timing 50, pause 50, setChange 20", listener.toString());
+        assertEquals(0, bus.getDroppedCount());
+    }
+
+    @Test
+    public void fullQueue_dropsOldestValueEvents() throws Exception {
+        TimerEventBus bus = new TimerEventBus();
+        ManualExecutor executor = new ManualExecutor();
+        RecordingListener listener = new RecordingListener();
+        bus.add(listener, executor, 2, false);
+
+        bus.onTimerTimingValueChanged(3);
+        bus.onTimerTimingValueChanged(2);
+        bus.onTimerTimingValueChanged(1);
+        executor.runAll();
+
+        assertEquals("timing 2, timing 1", listener.toString());
+        assertEquals(1, bus.getDroppedCount());
+    }
+
+    @Test
+    public void fullQueue_neverDropsStateEvents() throws Exception {
+        TimerEventBus bus = new TimerEventBus();
+        ManualExecutor executor = new ManualExecutor();
+        RecordingListener listener = new RecordingListener();
+        bus.add(listener, executor, 3, false);
+
+        bus.onTimerStart(4);
+        bus.onTimerTimingValueChanged(3);
+        bus.onTimerTimingValueChanged(2);
+        bus.onTimerStop();
+        executor.runAll();
+        // The oldest value made room for the stop
+        assertEquals("start 4, timing 2, stop", listener.toString());
+        assertEquals(1, bus.getDroppedCount());
+
+        // A queue of state events only drops the values and grows for more state events
+        bus = new TimerEventBus();
+        listener = new RecordingListener();
+        bus.add(listener, executor, 3, false);
+        bus.onTimerStart(60);
+        bus.onTimerPause(50);
+        bus.onTimerStart(50);
+        bus.onTimerTimingValueChanged(49);
+        bus.onTimerPause(40);
+        bus.onTimerSetValueChanged(30);
+        executor.runAll();
+        assertEquals("start 60, pause 50, start 50, pause 40, setChanged 30", listener.toString());
+        assertEquals(1, bus.getDroppedCount());
+    }
+
+    @Test
+    public void throwingListener_keepsReceivingEvents() throws Exception {
+        TimerEventBus bus = new TimerEventBus();
+        ManualExecutor executor = new ManualExecutor();
+        RecordingListener listener = new RecordingListener() {
+            @Override
+            public void onTimerStart(int time) {
+                super.onTimerStart(time);
+                throw new IllegalStateException("listener failed");
+            }
+        };
+        bus.add(listener, executor);
+
+        bus.onTimerStart(60);
+        bus.onTimerStop();
+        try {
+            executor.runAll();
+            fail();
+        } catch (IllegalStateException expected) {
+            // Thrown to the executor
+        }
+        // The stop behind the failed event is drained by a new run, later events still arrive
+        executor.runAll();
+        bus.onTimerSetValueChanged(30);
+        executor.runAll();
+        assertEquals("start 60, stop, setChanged 30", listener.toString());
+    }
+
+    @Test
+    public void rejectedDrain_keepsTheQueue() throws Exception {
+        TimerEventBus bus = new TimerEventBus();
+        final ManualExecutor executor = new ManualExecutor();
+        final boolean[] rejecting = {true};
+        RecordingListener listener = new RecordingListener();
+        bus.add(listener, new Executor() {
+            @Override
+            public void execute(Runnable runnable) {
+                if (rejecting[0]) {
+                    throw new RejectedExecutionException();
+                }
+                executor.execute(runnable);
+            }
+        });
+
+        bus.onTimerStart(60);
+        bus.onTimerPause(50);
+        assertTrue(executor.runnables.isEmpty());
+        rejecting[0] = false;
+        bus.onTimerStop();
+        executor.runAll();
+        assertEquals("start 60, pause 50, stop", listener.toString());
+        assertEquals(0, bus.getDroppedCount());
+    }
+
+    @Test
+    public void publish_doesNotAllocate() throws Exception {
+        TimerEventBus bus = new TimerEventBus();
+        bus.add(new CountingListener());
+        bus.add(new CountingListener(), new ManualExecutor());
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        publish(bus);
+
+        long before = bean.getThreadAllocatedBytes(threadId);
+        publish(bus);
+        long allocated = bean.getThreadAllocatedBytes(threadId) - before;
+        assertTrue("publish allocated " + allocated + " bytes for " + EVENTS + " events", allocated < EVENTS);
+    }
+
+    private static void publish(TimerEventBus bus) {
+        for (int i = 0; i < EVENTS; i++) {
+            bus.onTimerTimingValueChanged(i);
+        }
+    }
+
+    /**
+     * Executor that only runs its tasks when asked to, like a stalled background thread
+     */
+    private static class ManualExecutor implements Executor {
+        final List<Runnable> runnables = new ArrayList<>();
+
+        @Override
+        public void execute(Runnable runnable) {
+            runnables.add(runnable);
+        }
+
+        void runAll() {
+            while (!runnables.isEmpty()) {
+                runnables.remove(0).run();
+            }
+        }
+    }
+
+    private static class CountingListener extends RecordingListener {
+        int count;
+
+        @Override
+        public void onTimerTimingValueChanged(int time) {
+            count++;
+        }
+    }
+
+    private static class RecordingListener implements CircleTimerView.CircleTimerListener {
+        private final StringBuilder mEvents = new StringBuilder();
+
+        private void record(String event) {
+            if (mEvents.length() > 0) {
+                mEvents.append(", ");
+            }
+            mEvents.append(event);
+        }
+
+        @Override
+        public void onTimerStop() {
+            record("stop");
+        }
+
+        @Override
+        public void onTimerStart(int time) {
+            record("start " + time);
+        }
+
+        @Override
+        public void onTimerPause(int time) {
+            record("pause " + time);
+        }
+
+        @Override
+        public void onTimerTimingValueChanged(int time) {
+            record("timing " + time);
+        }
+
+        @Override
+        public void onTimerSetValueChanged(int time) {
+            record("setChanged " + time);
+        }
+
+        @Override
+        public void onTimerSetValueChange(int time) {
+            record("setChange " + time);
+        }
+
+        @Override
+        public String toString() {
+            return mEvents.toString();
+        }
+    }
+}
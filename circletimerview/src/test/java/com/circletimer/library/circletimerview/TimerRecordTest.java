@@ -0,0 +1,153 @@
+package com.circletimer.library.circletimerview;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Writes and restores {@link TimerRecord}s across simulated process restarts and reboots.
+ */
+public class TimerRecordTest {
+
+    private static final long WALL_TIME = 1500000000000L;
+
+    @Test
+    public void pausedCountdown_restoresExactly() throws Exception {
+        VirtualTickEngine clock = new VirtualTickEngine(5000);
+        CountdownEngine engine = new CountdownEngine(clock);
+        engine.setRemainingMillis(123456);
+        byte[] record = TimerRecord.write(engine, WALL_TIME);
+        assertEquals(TimerRecord.SIZE, record.length);
+
+        // A paused countdown does not care how much time passed
+        clock.advanceBy(3600 * 1000);
+        CountdownEngine restored = new CountdownEngine(clock);
+        assertTrue(TimerRecord.read(record, restored, WALL_TIME + 3600 * 1000));
+        assertFalse(restored.isRunning());
+        assertEquals(123456, restored.getRemainingMillis());
+    }
+
+    @Test
+    public void runningCountdown_keepsItsDeadline() throws Exception {
+        VirtualTickEngine clock = new VirtualTickEngine(5000);
+        CountdownEngine engine = new CountdownEngine(clock);
+        engine.setRemainingMillis(60 * 1000);
+        engine.start();
+        clock.advanceBy(10 * 1000);
+        byte[] record = TimerRecord.write(engine, WALL_TIME);
+
+        // Process killed and restarted 20 s later on the same boot
+        clock.advanceBy(20 * 1000);
+        CountdownEngine restored = new CountdownEngine(clock);
+        assertTrue(TimerRecord.read(record, restored, WALL_TIME + 20 * 1000));
+        assertTrue(restored.isRunning());
+        assertEquals(engine.getDeadline(), restored.getDeadline());
+        assertEquals(30 * 1000, restored.getRemainingMillis());
+
+        // Restored after the deadline, nothing is left
+        clock.advanceBy(60 * 1000);
+        assertTrue(TimerRecord.read(record, restored, WALL_TIME + 80 * 1000));
+        assertEquals(0, restored.getRemainingMillis());
+    }
+
+    @Test
+    public void runningCountdown_afterReboot_usesWallClock() throws Exception {
+        VirtualTickEngine clock = new VirtualTickEngine(10 * 60 * 1000);
+        CountdownEngine engine = new CountdownEngine(clock);
+        engine.setRemainingMillis(60 * 1000);
+        engine.start();
+        byte[] record = TimerRecord.write(engine, WALL_TIME);
+
+        // Rebooted, the engine clock starts again, 25 s passed on the wall clock
+        VirtualTickEngine rebooted = new VirtualTickEngine(5000);
+        CountdownEngine restored = new CountdownEngine(rebooted);
+        assertTrue(TimerRecord.read(record, restored, WALL_TIME + 25 * 1000));
+        assertTrue(restored.isRunning());
+        assertEquals(35 * 1000, restored.getRemainingMillis());
+
+        // Rebooted and up for longer than before, the engine clock is ahead but the boot count changed
+        record = TimerRecord.write(engine, WALL_TIME, 7);
+        rebooted.advanceTo(20 * 60 * 1000);
+        assertTrue(TimerRecord.read(record, restored, WALL_TIME + 30 * 1000, 8));
+        assertEquals(30 * 1000, restored.getRemainingMillis());
+    }
+
+    @Test
+    public void runningCountdown_afterUnknownReboot_usesWallClock() throws Exception {
+        VirtualTickEngine clock = new VirtualTickEngine(10 * 60 * 1000);
+        CountdownEngine engine = new CountdownEngine(clock);
+        engine.setRemainingMillis(60 * 60 * 1000);
+        engine.start();
+        byte[] record = TimerRecord.write(engine, WALL_TIME);
+
+        // Rebooted without a boot count and up for longer than before: the engine clock is ahead, but 30 min passed
+        // on the wall clock and the engine clock only ran for 20 min since boot
+        VirtualTickEngine rebooted = new VirtualTickEngine(20 * 60 * 1000);
+        CountdownEngine restored = new CountdownEngine(rebooted);
+        assertTrue(TimerRecord.read(record, restored, WALL_TIME + 30 * 60 * 1000));
+        assertEquals(30 * 60 * 1000, restored.getRemainingMillis());
+
+        // A wall clock correction within the tolerance on the same boot is not a reboot
+        clock = new VirtualTickEngine(20 * 1000);
+        engine = new CountdownEngine(clock);
+        engine.setRemainingMillis(60 * 1000);
+        engine.start();
+        record = TimerRecord.write(engine, WALL_TIME);
+        clock.advanceBy(10 * 1000);
+        restored = new CountdownEngine(clock);
+        assertTrue(TimerRecord.read(record, restored, WALL_TIME + 60 * 1000));
+        assertEquals(engine.getDeadline(), restored.getDeadline());
+    }
+
+    @Test
+    public void runningCountdown_afterWallClockJump_keepsItsDeadline() throws Exception {
+        // Up for two days, longer than the wall clock jumps
+        VirtualTickEngine clock = new VirtualTickEngine(2 * 24 * 3600 * 1000L);
+        CountdownEngine engine = new CountdownEngine(clock);
+        engine.setRemainingMillis(60 * 60 * 1000);
+        engine.start();
+        byte[] withBootCount = TimerRecord.write(engine, WALL_TIME, 7);
+        byte[] withoutBootCount = TimerRecord.write(engine, WALL_TIME);
+
+        // 10 s later the wall clock was set a day forward, then an hour back, on the same boot
+        clock.advanceBy(10 * 1000);
+        CountdownEngine restored = new CountdownEngine(clock);
+        assertTrue(TimerRecord.read(withBootCount, restored, WALL_TIME + 24 * 3600 * 1000, 7));
+        assertEquals(engine.getDeadline(), restored.getDeadline());
+        assertTrue(TimerRecord.read(withoutBootCount, restored, WALL_TIME + 24 * 3600 * 1000));
+        assertEquals(engine.getDeadline(), restored.getDeadline());
+        assertTrue(TimerRecord.read(withBootCount, restored, WALL_TIME - 3600 * 1000, 7));
+        assertEquals(59 * 60 * 1000 + 50 * 1000, restored.getRemainingMillis());
+        assertTrue(TimerRecord.read(withoutBootCount, restored, WALL_TIME - 3600 * 1000));
+        assertEquals(engine.getDeadline(), restored.getDeadline());
+    }
+
+    @Test
+    public void versionOneRecord_isStillRead() throws Exception {
+        VirtualTickEngine clock = new VirtualTickEngine(5000);
+        CountdownEngine engine = new CountdownEngine(clock);
+        engine.setRemainingMillis(60 * 1000);
+        engine.start();
+        byte[] record = Arrays.copyOf(TimerRecord.write(engine, WALL_TIME), 26);
+        record[0] = 1;
+
+        clock.advanceBy(20 * 1000);
+        CountdownEngine restored = new CountdownEngine(clock);
+        assertTrue(TimerRecord.read(record, restored, WALL_TIME + 20 * 1000, 7));
+        assertEquals(engine.getDeadline(), restored.getDeadline());
+    }
+
+    @Test
+    public void invalidRecord_isRejected() throws Exception {
+        CountdownEngine engine = new CountdownEngine(new VirtualTickEngine(0));
+        engine.setRemainingMillis(1000);
+        assertFalse(TimerRecord.read(null, engine, WALL_TIME));
+        assertFalse(TimerRecord.read(new byte[3], engine, WALL_TIME));
+        assertFalse(TimerRecord.read(new byte[TimerRecord.SIZE], engine, WALL_TIME));
+        assertEquals(1000, engine.getRemainingMillis());
+    }
+}
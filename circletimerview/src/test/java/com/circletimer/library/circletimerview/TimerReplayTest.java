@@ -0,0 +1,146 @@
+package com.circletimer.library.circletimerview;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Runs hundreds of timers through hours of countdown on a {@link VirtualTickEngine}, records their events into a
+ * {@link TimerEventLog} and checks the callback order, the number of value changes and the drift of every stop.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 26)
+public class TimerReplayTest {
+
+    private static final int TIMERS = 500;
+    private static final long START_TIME = 250;
+    // Some timers are paused in between
+    private static final long PAUSE_TIME = 10 * 60 * 1000;
+    private static final long RESUME_TIME = 15 * 60 * 1000;
+    private static final long END_TIME = 3 * 3600 * 1000;
+
+    @Test
+    public void replay_deliversEveryEventInOrderWithoutDrift() throws Exception {
+        Scenario scenario = new Scenario();
+        scenario.run();
+
+        int[] state = new int[TIMERS];
+        int[] expectedValue = new int[TIMERS];
+        int[] valueChanges = new int[TIMERS];
+        TimerEventLog log = scenario.log;
+        for (int i = 0; i < log.size(); i++) {
+            int timer = log.getTimer(i);
+            int type = log.getType(i);
+            switch (state[timer]) {
+                case 0:
+                    // Set, then started
+                    expect(log, i, type == TimerEventLog.EVENT_SET_VALUE_CHANGED);
+                    expectedValue[timer] = log.getValue(i);
+                    state[timer] = 1;
+                    break;
+                case 1:
+                    expect(log, i, type == TimerEventLog.EVENT_START && log.getValue(i) == expectedValue[timer]);
+                    expectedValue[timer]--;
+                    state[timer] = 2;
+                    break;
+                case 2:
+                    if (type == TimerEventLog.EVENT_TIMING_VALUE_CHANGED) {
+                        // Every second exactly once, counting down
+                        expect(log, i, log.getValue(i) == expectedValue[timer]);
+                        expectedValue[timer]--;
+                        valueChanges[timer]++;
+                    } else if (type == TimerEventLog.EVENT_PAUSE) {
+                        expect(log, i, scenario.paused[timer] && log.getTime(i) == PAUSE_TIME);
+                        state[timer] = 1;
+                        // Resumed with the value shown when paused
+                        expectedValue[timer] = log.getValue(i);
+                    } else {
+                        expect(log, i, type == TimerEventLog.EVENT_STOP && expectedValue[timer] == -1);
+                        // The display ticks are aligned, the stop is not
+                        expect(log, i, log.getTime(i) == scenario.getDeadline(timer));
+                        state[timer] = 3;
+                    }
+                    break;
+                default:
+                    expect(log, i, false);
+            }
+        }
+        for (int timer = 0; timer < TIMERS; timer++) {
+            assertEquals("timer " + timer, 3, state[timer]);
+            assertEquals("timer " + timer, scenario.durations[timer], valueChanges[timer]);
+        }
+        // All timers share the aligned wakeups, at most one per second and one per deadline
+        assertTrue(scenario.engine.getWakeupCount() <= END_TIME / HandlerTickEngine.SHARED_ALIGNMENT + TIMERS);
+    }
+
+    @Test
+    public void replay_isDeterministic() throws Exception {
+        Scenario first = new Scenario();
+        first.run();
+        Scenario second = new Scenario();
+        second.run();
+        assertEquals(first.log, second.log);
+    }
+
+    private static void expect(TimerEventLog log, int index, boolean condition) {
+        if (!condition) {
+            fail("unexpected event " + log.toString(index));
+        }
+    }
+
+    /**
+     * Timers of durations up to an hour started a few milliseconds apart, every tenth one is paused for five minutes
+     */
+    private static class Scenario {
+        final VirtualTickEngine engine = new VirtualTickEngine();
+        final TimerEventLog log = new TimerEventLog(engine);
+        final CircleTimerView[] views = new CircleTimerView[TIMERS];
+        final int[] durations = new int[TIMERS];
+        final long[] startTimes = new long[TIMERS];
+        final boolean[] paused = new boolean[TIMERS];
+
+        Scenario() {
+            engine.setAlignment(HandlerTickEngine.SHARED_ALIGNMENT);
+            for (int i = 0; i < TIMERS; i++) {
+                durations[i] = 1 + i * 131 % 3600;
+                startTimes[i] = START_TIME + i * 3;
+                views[i] = new CircleTimerView(RuntimeEnvironment.application);
+                views[i].setTickEngine(engine);
+                views[i].addCircleTimerListener(log.listener(i));
+            }
+        }
+
+        void run() {
+            for (int i = 0; i < TIMERS; i++) {
+                engine.advanceTo(startTimes[i]);
+                views[i].setCurrentTime(durations[i]);
+                views[i].startTimer();
+            }
+            engine.advanceTo(PAUSE_TIME);
+            for (int i = 3; i < TIMERS; i += 10) {
+                if (views[i].getCountdownEngine().isRunning()) {
+                    views[i].pauseTimer();
+                    paused[i] = true;
+                }
+            }
+            engine.advanceTo(RESUME_TIME);
+            for (int i = 3; i < TIMERS; i += 10) {
+                if (paused[i]) {
+                    views[i].startTimer();
+                }
+            }
+            assertTrue(engine.runUntilIdle(END_TIME));
+        }
+
+        long getDeadline(int timer) {
+            long deadline = startTimes[timer] + durations[timer] * 1000L;
+            return paused[timer] ? deadline + RESUME_TIME - PAUSE_TIME : deadline;
+        }
+    }
+}